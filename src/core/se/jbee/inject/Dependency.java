@@ -26,7 +26,113 @@ public final class Dependency<T>
 	 * A empty {@link Injection} hierarchy. It is used whenever the {@link Dependency} does not
 	 * depend on the actual hierarchy. This is the default.
 	 */
-	private static final Injection[] UNTARGETED = new Injection[0];
+	private static final Hierarchy UNTARGETED = null;
+
+	/**
+	 * A persistent {@link Injection} hierarchy. Each level refers to the
+	 * level it has been pushed onto so that pushing a level is O(1) and
+	 * all {@link Dependency}s injected into the same target share the levels
+	 * above.
+	 * 
+	 * Each level also summarises the levels above for the checks done when
+	 * pushing a level: the {@link Injection} with the least frequent
+	 * {@link Expiry} and a bit-mask of all {@link Injection}s by hash.
+	 * 
+	 * Levels can be walked from the direct target outwards without
+	 * allocating (see {@link Dependency#hierarchy()}).
+	 */
+	public static final class Hierarchy {
+
+		final Injection injection;
+		final Hierarchy parent;
+		final int depth;
+		final int hash;
+		/**
+		 * The outermost of the {@link Injection}s with the least frequent
+		 * {@link Expiry} of this and all parent levels.
+		 */
+		final Injection leastFrequent;
+		/**
+		 * Has the {@link #bit(Injection)} set for this and all parent
+		 * levels. If the bit of an {@link Injection} is not set it is not
+		 * contained.
+		 */
+		final long injections;
+
+		Hierarchy( Injection injection, Hierarchy parent ) {
+			this.injection = injection;
+			this.parent = parent;
+			this.depth = parent == null ? 1 : parent.depth + 1;
+			this.hash = 31 * ( 31 * ( parent == null ? 1 : parent.hash ) + hashOf( injection.dependency ) )
+					+ hashOf( injection.target.instance );
+			this.leastFrequent = parent == null || parent.leastFrequent.expiry.moreFrequent( injection.expiry )
+				? injection
+				: parent.leastFrequent;
+			this.injections = parent == null ? bit( injection ) : parent.injections | bit( injection );
+		}
+
+		/**
+		 * @return a bit consistent with {@link Injection#equalTo(Injection)}
+		 */
+		static long bit( Injection injection ) {
+			int h = 31 * hashOf( injection.dependency ) + hashOf( injection.target.instance );
+			return 1L << ( h ^ ( h >>> 16 ) );
+		}
+
+		public Injection injection() {
+			return injection;
+		}
+
+		/**
+		 * @return the level this level has been pushed onto or
+		 *         <code>null</code> for the outermost level
+		 */
+		public Hierarchy parent() {
+			return parent;
+		}
+
+		Hierarchy at( int level ) {
+			Hierarchy h = this;
+			for ( int i = 0; i < level; i++ ) {
+				h = h.parent;
+			}
+			return h;
+		}
+
+		static boolean equalTo( Hierarchy one, Hierarchy other ) {
+			while ( one != other ) { // shared levels are equal
+				if ( one == null || other == null || one.depth != other.depth || one.hash != other.hash
+						|| !one.injection.equalTo( other.injection ) ) {
+					return false;
+				}
+				one = one.parent;
+				other = other.parent;
+			}
+			return true;
+		}
+
+		static boolean equalToExactly( Hierarchy one, Hierarchy other ) {
+			while ( one != other ) {
+				if ( one == null || other == null || one.depth != other.depth || one.hash != other.hash
+						|| !equalToExactly( one.injection, other.injection ) ) {
+					return false;
+				}
+				one = one.parent;
+				other = other.parent;
+			}
+			return true;
+		}
+
+		private static boolean equalToExactly( Injection one, Injection other ) {
+			return one == other || Dependency.equalToExactly( one.dependency, other.dependency )
+					&& Dependency.equalToExactly( one.target.instance, other.target.instance )
+					&& one.target.target.equalTo( other.target.target );
+		}
+
+		static int depth( Hierarchy h ) {
+			return h == null ? 0 : h.depth;
+		}
+	}
 
 	@SuppressWarnings("rawtypes")
 	public static Dependency<Class[]> pluginsFor(Class<?> pluginPoint) {
@@ -45,37 +151,94 @@ public final class Dependency<T>
 		return dependency( instance, UNTARGETED );
 	}
 
-	private static <T> Dependency<T> dependency( Type<T> type, Injection[] hierarchy ) {
+	private static <T> Dependency<T> dependency( Type<T> type, Hierarchy hierarchy ) {
 		return dependency( Instance.instance( Name.ANY, type ), hierarchy );
 	}
 
-	private static <T> Dependency<T> dependency( Instance<T> instance, Injection[] hierarchy ) {
+	private static <T> Dependency<T> dependency( Instance<T> instance, Hierarchy hierarchy ) {
 		return new Dependency<>( instance, hierarchy );
 	}
 
-	private final Injection[] hierarchy;
+	private final Hierarchy hierarchy;
 	public final Instance<T> instance;
 
-	private Dependency( Instance<T> instance, Injection... hierarchy ) {
+	/**
+	 * Lazily computed structural hash (0 = not yet computed).
+	 */
+	private int hash;
+
+	private Dependency( Instance<T> instance, Hierarchy hierarchy ) {
 		this.instance = instance;
 		this.hierarchy = hierarchy;
 	}
 	
 	public boolean equalTo( Dependency<?> other ) {
 		// cheapest first...
-		if (hierarchy.length != other.hierarchy.length || !instance.equalTo(other.instance))
+		if (this == other)
+			return true;
+		if (injectionDepth() != other.injectionDepth() || !instance.equalTo(other.instance))
 			return false;
-		for (int i = 0; i < hierarchy.length; i++) {
-			if (!hierarchy[i].equalTo(other.hierarchy[i]))
-				return false;
+		return Hierarchy.equalTo( hierarchy, other.hierarchy );
+	}
+
+	/**
+	 * @return true, if this dependency is {@link #equalTo(Dependency)} the
+	 *         other and all {@link Type}s involved are
+	 *         {@link Type#equalToExactly(Type)} (upper bounds do matter).
+	 */
+	public boolean equalToExactly( Dependency<?> other ) {
+		if (this == other)
+			return true;
+		if (injectionDepth() != other.injectionDepth() || !equalToExactly(instance, other.instance))
+			return false;
+		return Hierarchy.equalToExactly( hierarchy, other.hierarchy );
+	}
+
+	/**
+	 * Equality is {@link #equalToExactly(Dependency)} so that
+	 * {@link Dependency}s can be used as keys of what has been resolved for
+	 * them: <code>List&lt;Number&gt;</code> must not be the same key as
+	 * <code>List&lt;? extends Number&gt;</code>.
+	 */
+	@Override
+	public boolean equals( Object obj ) {
+		return obj instanceof Dependency && equalToExactly( (Dependency<?>) obj );
+	}
+
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if ( h == 0 ) {
+			h = 31 * ( hierarchy == null ? 0 : hierarchy.hash ) + exactHashOf( instance.type ) + hashOf( instance );
+			hash = h;
+		}
+		return h;
+	}
+
+	private static int hashOf( Instance<?> instance ) {
+		return 31 * instance.name.hashCode() + instance.type.hashCode();
+	}
+
+	/**
+	 * @return a hash of the parameters and upper bounds of the given type
+	 *         (consistent with {@link Type#equalToExactly(Type)})
+	 */
+	private static int exactHashOf( Type<?> type ) {
+		int h = type.isUpperBound() ? 1 : 2;
+		for ( Type<?> p : type.parameters() ) {
+			h = 31 * h + p.rawType.hashCode() + exactHashOf( p );
 		}
-		return true;
+		return h;
+	}
+
+	static boolean equalToExactly( Instance<?> one, Instance<?> other ) {
+		return one == other || one.name.equalTo( other.name ) && one.type.equalToExactly( other.type );
 	}
 	
 	@Override
 	public String toString() {
 		StringBuilder b = new StringBuilder();
-		for ( Injection i : hierarchy ) {
+		for ( Injection i : this ) {
 			b.append( i.target ).append( " -> " );
 		}
 		b.append(instance);
@@ -113,18 +276,18 @@ public final class Dependency<T>
 	}
 
 	public Dependency<T> ignoredExpiry() {
-		if ( hierarchy.length == 0 ) {
+		if ( hierarchy == null ) {
 			return this;
 		}
-		Injection[] ignored = new Injection[hierarchy.length];
-		for ( int i = 0; i < ignored.length; i++ ) {
-			ignored[i] = hierarchy[i].ignoredExpiry();
+		Hierarchy ignored = null;
+		for ( Injection i : this ) {
+			ignored = new Hierarchy( i.ignoredExpiry(), ignored );
 		}
 		return dependency( instance, ignored );
 	}
 
 	public boolean isUntargeted() {
-		return hierarchy.length == 0;
+		return hierarchy == null;
 	}
 
 	public Instance<?> target() {
@@ -132,13 +295,22 @@ public final class Dependency<T>
 	}
 
 	public Instance<?> target( int level ) {
-		return level >= hierarchy.length
+		return level >= injectionDepth()
 			? Instance.ANY
-			: hierarchy[hierarchy.length - 1 - level].target.instance;
+			: hierarchy.at( level ).injection.target.instance;
+	}
+
+	/**
+	 * @return the innermost level of the injection hierarchy (the
+	 *         {@link #target()}) or <code>null</code> if this dependency is
+	 *         not injected into anything
+	 */
+	public Hierarchy hierarchy() {
+		return hierarchy;
 	}
 
 	public int injectionDepth() {
-		return hierarchy.length;
+		return Hierarchy.depth( hierarchy );
 	}
 
 	/**
@@ -158,25 +330,27 @@ public final class Dependency<T>
 
 	public Dependency<T> injectingInto( Resource<?> target, Expiry expiry ) throws DependencyCycle, UnstableDependency {
 		Injection injection = new Injection( instance, target, expiry );
-		if ( hierarchy.length == 0 ) {
-			return new Dependency<>( instance, injection );
+		if ( hierarchy == null ) {
+			return new Dependency<>( instance, new Hierarchy( injection, null ) );
 		}
 		ensureNotMoreFrequentExpiry( injection );
 		ensureNoDependencyCycle( injection );
-		return new Dependency<>( instance, Array.append( hierarchy, injection ) );
+		return new Dependency<>( instance, new Hierarchy( injection, hierarchy ) );
 	}
 
 	public Dependency<T> uninject() {
-		if ( hierarchy.length <= 1 ) {
-			return untargeted();
+		if ( hierarchy == null ) {
+			return this;
 		}
-		return new Dependency<>( instance, Arrays.copyOf( hierarchy, hierarchy.length - 1 ) );
+		return new Dependency<>( instance, hierarchy.parent );
 	}
 
 	private void ensureNoDependencyCycle( Injection injection ) throws DependencyCycle {
-		for ( int i = 0; i < hierarchy.length; i++ ) {
-			Injection parent = hierarchy[i];
-			if ( parent.equalTo( injection ) ) {
+		if ( ( hierarchy.injections & Hierarchy.bit( injection ) ) == 0L ) {
+			return;
+		}
+		for ( Hierarchy h = hierarchy; h != null; h = h.parent ) {
+			if ( h.injection.equalTo( injection ) ) {
 				throw new DependencyCycle( this, injection.target );
 			}
 		}
@@ -184,16 +358,28 @@ public final class Dependency<T>
 
 	private void ensureNotMoreFrequentExpiry( Injection injection ) throws UnstableDependency {
 		final Expiry expiry = injection.expiry;
-		for ( int i = 0; i < hierarchy.length; i++ ) {
-			Injection parent = hierarchy[i];
-			if ( expiry.moreFrequent( parent.expiry ) ) {
-				throw new UnstableDependency( parent, injection );
+		if ( !expiry.moreFrequent( hierarchy.leastFrequent.expiry ) ) {
+			return;
+		}
+		Injection unstable = null;
+		for ( Hierarchy h = hierarchy; h != null; h = h.parent ) {
+			if ( expiry.moreFrequent( h.injection.expiry ) ) {
+				unstable = h.injection; // the outermost is reported
 			}
 		}
+		throw new UnstableDependency( unstable, injection );
 	}
 
+	/**
+	 * Iterates the {@link Injection}s starting with the outermost.
+	 */
 	@Override
 	public Iterator<Injection> iterator() {
-		return Arrays.asList( hierarchy ).iterator();
+		Injection[] injections = new Injection[injectionDepth()];
+		int i = injections.length;
+		for ( Hierarchy h = hierarchy; h != null; h = h.parent ) {
+			injections[--i] = h.injection;
+		}
+		return Arrays.asList( injections ).iterator();
 	}
 }
\ No newline at end of file
@@ -26,6 +26,17 @@ public final class Packages
 	 */
 	public static final Packages DEFAULT = new Packages( new String[0], false );
 
+	/**
+	 * @return the {@link Packages} with the given {@link #roots()} as
+	 *         returned by an existing instance, e.g. to restore it from a
+	 *         snapshot.
+	 */
+	public static Packages packages( String[] roots, boolean includingSubpackages ) {
+		return roots.length == 0
+			? ( includingSubpackages ? ALL : DEFAULT )
+			: new Packages( roots.clone(), includingSubpackages );
+	}
+
 	public static Packages packageAndSubPackagesOf( Class<?> type ) {
 		return new Packages( packageNameOf( type ), true );
 	}
@@ -176,6 +187,18 @@ public final class Packages
 		return true;
 	}
 
+	/**
+	 * @return the root package names in their internal form (sub-package
+	 *         roots end with a dot)
+	 */
+	public String[] roots() {
+		return roots.clone();
+	}
+
+	public boolean includesSubpackages() {
+		return includingSubpackages;
+	}
+
 	public boolean includesAll() {
 		return roots.length == 0 && includingSubpackages;
 	}
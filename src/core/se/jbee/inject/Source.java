@@ -17,6 +17,15 @@ public final class Source
 		return new Source( module, DeclarationType.EXPLICIT, 0, 0 );
 	}
 
+	/**
+	 * @return a {@link Source} as it was given by
+	 *         {@link #source(Class)}, {@link #typed(DeclarationType)} and
+	 *         {@link #next()}, e.g. to restore it from a snapshot.
+	 */
+	public static Source source( Class<?> module, DeclarationType declarationType, int declarationNo ) {
+		return new Source( module, declarationType, declarationNo, 0 );
+	}
+
 	public final Class<?> ident;
 	public final DeclarationType declarationType;
 	public final int declarationNo;
@@ -95,15 +95,15 @@ public final class Target
 		if ( pl > il ) {
 			return false;
 		}
-		int pi = 0;
-		while ( pl <= il && pl > 0 ) {
-			if ( isAssingableTo( parents.at( pi ).type(), dependency.target( il ).type() ) ) {
-				pl--;
-				pi++;
+		int pi = pl - 1;
+		// the direct target is not a parent, the innermost parent matches first
+		for ( Dependency.Hierarchy h = dependency.hierarchy().parent(); h != null && pi < il; h = h.parent() ) {
+			if ( isAssingableTo( parents.at( pi ).type(), h.injection().target.instance.type() ) && --pi < 0 ) {
+				return true;
 			}
 			il--;
 		}
-		return pl == 0;
+		return false;
 	}
 
 	private static boolean isAssingableTo( Type<?> type, Type<?> targetType ) {
@@ -203,6 +203,25 @@ public final class Type<T>
 		return obj instanceof Type<?> && equalTo( (Type<?>) obj );
 	}
 
+	/**
+	 * @return true, if this type is {@link #equalTo(Type)} the other and both
+	 *         are upper bounds or not on all levels.
+	 */
+	public boolean equalToExactly( Type<?> other ) {
+		if ( this == other ) {
+			return true;
+		}
+		if ( rawType != other.rawType || upperBound != other.upperBound || params.length != other.params.length ) {
+			return false;
+		}
+		for ( int i = 0; i < params.length; i++ ) {
+			if ( !params[i].equalToExactly( other.params[i] ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * @return in case of an array type the {@link Class#getComponentType()} with the same type
 	 *         parameters as this type or otherwise this type.
@@ -70,6 +70,20 @@ public abstract class UnresolvableDependency
 
 	}
 
+	/**
+	 * A {@link Dependency} is resolved outside of the extent its scope (e.g. a task or request) is
+	 * bound to the current thread.
+	 */
+	public static final class OutOfScope
+			extends UnresolvableDependency {
+
+		private static final long serialVersionUID = 1L;
+
+		public OutOfScope( Dependency<?> dependency, Object scope ) {
+			super( "Not within " + scope + ": " + dependency );
+		}
+	}
+
 	/**
 	 * An {@link Injector} couldn't find a {@link Resource} that matches a {@link Dependency} to
 	 * resolve.
@@ -20,20 +20,30 @@ import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import se.jbee.inject.Dependency;
 import se.jbee.inject.Injector;
 import se.jbee.inject.Instance;
+import se.jbee.inject.Source;
 import se.jbee.inject.Supplier;
 import se.jbee.inject.Type;
 import se.jbee.inject.UnresolvableDependency;
 import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.bind.Bind;
+import se.jbee.inject.bind.Binder;
+import se.jbee.inject.bind.Binder.RootBinder;
 import se.jbee.inject.bind.BinderModule;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrapper;
 import se.jbee.inject.bootstrap.BoundParameter;
+import se.jbee.inject.bootstrap.Bundle;
 import se.jbee.inject.bootstrap.InjectionSite;
 import se.jbee.inject.bootstrap.Inspect;
 import se.jbee.inject.bootstrap.Inspector;
-import se.jbee.inject.bootstrap.Invoke;
+import se.jbee.inject.bootstrap.Invoker;
+import se.jbee.inject.bootstrap.Invoker.Invocation;
+import se.jbee.inject.bootstrap.Macros;
 import se.jbee.inject.bootstrap.Metaclass;
 import se.jbee.inject.bootstrap.Module;
 import se.jbee.inject.container.Scoped;
@@ -56,6 +66,13 @@ public abstract class ActionModule
 	 */
 	static final Instance<Inspector> ACTION_INSPECTOR = instance( named(Action.class), raw( Inspector.class ) );
 
+	/**
+	 * The {@link Invoker} the {@link DirectExecutor} calls action {@link Method}s
+	 * with. This is the one configured for the {@link Macros} of the
+	 * {@link Bindings} (see {@link Macros#invokingBy(Invoker)}).
+	 */
+	static final Instance<Invoker> ACTION_INVOKER = instance( named(Action.class), raw( Invoker.class ) );
+
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public static <I,O> Dependency<Action<I,O>> actionDependency(Type<I> input, Type<O> output) {
 		Type type = raw(Action.class).parametized(input, output);
@@ -74,24 +91,50 @@ public abstract class ActionModule
 		super(Scoped.APPLICATION, ActionBaseModule.class);
 	}
 
+	/**
+	 * A {@link Module} (not a {@link BinderModule}) as it binds the
+	 * {@link Invoker} of the {@link Macros} used by the {@link Bindings}.
+	 */
 	private static final class ActionBaseModule
-			extends BinderModule {
+			implements Bundle, Module {
+
+		@Override
+		public void bootstrap( Bootstrapper bootstrap ) {
+			bootstrap.install( this );
+		}
 
 		@Override
-		public void declare() {
-			asDefault().per( DEPENDENCY_TYPE ).starbind( Action.class ).toSupplier( ActionSupplier.class );
-			asDefault().per( APPLICATION ).bind( ACTION_INSPECTOR ).to( Inspect.all().methods() );
-			asDefault().per(APPLICATION).bind(Executor.class).to(DirectExecutor.class);
+		public void declare( Bindings bindings ) {
+			RootBinder bind = Binder.create( Bind.create( bindings, Source.source( ActionBaseModule.class ), APPLICATION ) ).asDefault();
+			bind.per( DEPENDENCY_TYPE ).starbind( Action.class ).toSupplier( ActionSupplier.class );
+			bind.per( APPLICATION ).bind( ACTION_INSPECTOR ).to( Inspect.all().methods() );
+			bind.per( APPLICATION ).bind( ACTION_INVOKER ).to( bindings.macros.invoker() );
+			bind.per(APPLICATION).bind(Executor.class).to(DirectExecutor.class);
 		}
 
 	}
 	
 	static final class DirectExecutor implements Executor {
 
+		/**
+		 * The prepared {@link Invocation} for each action {@link Method}.
+		 */
+		private final Map<Method, Invocation<?>> invocations = new ConcurrentHashMap<>();
+		private final Invoker invoker;
+
+		public DirectExecutor( Injector injector ) {
+			this.invoker = injector.resolve( dependency( ACTION_INVOKER ).injectingInto( DirectExecutor.class ) );
+		}
+
 		@Override
 		public <I, O> O exec(Object impl, Method action, Object[] args,	Type<O> output, Type<I> input, I value) {
+			Invocation<?> invocation = invocations.get(action);
+			if (invocation == null) {
+				invocation = invoker.method(action);
+				invocations.put(action, invocation);
+			}
 			try {
-				return output.rawType.cast(Invoke.method(action, impl, args));
+				return output.rawType.cast(invocation.invoke(impl, args));
 			} catch (SupplyFailed e) {
 				Exception ex = e;
 				if ( e.getCause() instanceof Exception ) {
@@ -7,8 +7,11 @@ package se.jbee.inject.bootstrap;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import se.jbee.inject.Array;
@@ -136,7 +139,7 @@ public final class Binding<T>
 			return bindings;
 		}
 		List<Binding<?>> uniques = new ArrayList<>( bindings.length );
-		Arrays.sort( bindings );
+		int[] ranks = sort( bindings );
 		uniques.add( bindings[0] );
 		int lastUniqueIndex = 0;
 		Set<Type<?>> required = new HashSet<>();
@@ -144,7 +147,7 @@ public final class Binding<T>
 		for ( int i = 1; i < bindings.length; i++ ) {
 			Binding<?> b_d = bindings[lastUniqueIndex];
 			Binding<?> b_i = bindings[i];
-			final boolean equalResource = b_d.resource.equalTo( b_i.resource );
+			final boolean equalResource = ranks[lastUniqueIndex] == ranks[i] && b_d.resource.equalTo( b_i.resource );
 			DeclarationType t_d = b_d.source.declarationType;
 			DeclarationType t_i = b_i.source.declarationType;
 			if ( equalResource && t_d.clashesWith( t_i ) ) {
@@ -165,6 +168,127 @@ public final class Binding<T>
 		return withoutProvidedThatAreNotRequiredIn(uniques, required, dropped);
 	}
 
+	/**
+	 * Sorts the given bindings in the order of {@link #compareTo(Binding)}.
+	 * Instead of comparing canonical names of the raw types each comparison
+	 * each raw type is ranked once by its canonical name. The precision of
+	 * the {@link Instance}, target and {@link Source} is only compared for
+	 * bindings of the same raw type. Precision is a partial order and cannot
+	 * be packed into the key.
+	 * 
+	 * @return the rank of the raw type for each binding (in sorted order)
+	 */
+	static int[] sort( Binding<?>[] bindings ) {
+		Map<Class<?>, String> names = new IdentityHashMap<>();
+		for ( Binding<?> b : bindings ) {
+			Class<?> raw = b.resource.type().rawType;
+			if ( !names.containsKey( raw ) ) {
+				String name = raw.getCanonicalName();
+				names.put( raw, name == null ? raw.getName() : name );
+			}
+		}
+		Class<?>[] types = names.keySet().toArray( new Class<?>[names.size()] );
+		Arrays.sort( types, ( a, b ) -> names.get( a ).compareTo( names.get( b ) ) );
+		Map<Class<?>, Integer> rankOf = new IdentityHashMap<>( types.length );
+		Set<Class<?>> plain = Collections.newSetFromMap( new IdentityHashMap<>() );
+		int rank = 0;
+		for ( int i = 0; i < types.length; i++ ) {
+			if ( types[i].getTypeParameters().length == 0 ) {
+				plain.add( types[i] );
+			}
+			if ( i > 0 && !names.get( types[i] ).equals( names.get( types[i - 1] ) ) ) {
+				rank++;
+			}
+			rankOf.put( types[i], rank );
+		}
+		Keyed[] keyed = new Keyed[bindings.length];
+		for ( int i = 0; i < bindings.length; i++ ) {
+			Binding<?> b = bindings[i];
+			keyed[i] = new Keyed( rankOf.get( b.resource.type().rawType ), b, plain.contains( b.resource.type().rawType ) );
+		}
+		mergeSort( keyed, keyed.clone(), 0, keyed.length );
+		int[] ranks = new int[bindings.length];
+		for ( int i = 0; i < keyed.length; i++ ) {
+			bindings[i] = keyed[i].binding;
+			ranks[i] = keyed[i].rank;
+		}
+		return ranks;
+	}
+
+	/**
+	 * A plain stable merge sort. As precision is a partial order the
+	 * comparison is not transitive for incomparable bindings, unlike
+	 * {@link Arrays#sort(Object[])} this does not fail because of that.
+	 */
+	private static void mergeSort( Keyed[] a, Keyed[] tmp, int from, int to ) {
+		if ( to - from < 2 ) {
+			return;
+		}
+		int mid = ( from + to ) >>> 1;
+		mergeSort( tmp, a, from, mid );
+		mergeSort( tmp, a, mid, to );
+		int l = from;
+		int r = mid;
+		for ( int i = from; i < to; i++ ) {
+			if ( r >= to || l < mid && tmp[l].compareTo( tmp[r] ) <= 0 ) {
+				a[i] = tmp[l++];
+			} else {
+				a[i] = tmp[r++];
+			}
+		}
+	}
+
+	/**
+	 * A {@link Binding} with the parts of its sort key that are computed once.
+	 */
+	private static final class Keyed implements Comparable<Keyed> {
+
+		final int rank;
+		final Binding<?> binding;
+		/**
+		 * A type without type parameters that is no upper bound is as precise
+		 * as any other such type of the same raw type.
+		 */
+		final boolean plainType;
+		final int declarationType;
+
+		Keyed( int rank, Binding<?> binding, boolean plainRawType ) {
+			this.rank = rank;
+			this.binding = binding;
+			this.plainType = plainRawType && !binding.resource.type().isUpperBound();
+			this.declarationType = binding.source.declarationType.ordinal();
+		}
+
+		/**
+		 * Same as {@link Binding#compareTo(Binding)} but with the shortcuts
+		 * the precomputed parts allow.
+		 */
+		@Override
+		public int compareTo( Keyed other ) {
+			if ( rank != other.rank ) {
+				return rank < other.rank ? -1 : 1;
+			}
+			Resource<?> r1 = binding.resource;
+			Resource<?> r2 = other.binding.resource;
+			int res = plainType && other.plainType
+				? Instance.comparePrecision( r1.instance.name, r2.instance.name )
+				: Instance.comparePrecision( r1.instance, r2.instance );
+			if ( res != 0 ) {
+				return res;
+			}
+			if ( r1.target != r2.target ) {
+				res = Instance.comparePrecision( r1.target, r2.target );
+				if ( res != 0 ) {
+					return res;
+				}
+			}
+			if ( declarationType != other.declarationType ) {
+				return declarationType > other.declarationType ? -1 : 1;
+			}
+			return -1; // keep order
+		}
+	}
+
 	private static Binding<?>[] withoutProvidedThatAreNotRequiredIn(List<Binding<?>> bindings, Set<Type<?>> required, List<Binding<?>> dropped) {
 		List<Binding<?>> res = new ArrayList<>( bindings.size() );
 		for ( Binding<?> b : bindings ) {
@@ -11,6 +11,9 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import se.jbee.inject.Array;
 import se.jbee.inject.InconsistentBinding;
@@ -25,22 +28,39 @@ import se.jbee.inject.InconsistentBinding;
 public final class Bindings {
 
 	public static Bindings bindings( Macros macros, Inspector inspector ) {
-		return new Bindings( macros, inspector, new ArrayList<>(128) );
+		return new Bindings( macros, inspector, new ArrayList<>(128), null );
 	}
 
 	public final Macros macros;
 	public final Inspector inspector;
 	
 	private final List<Binding<?>> bindings;
+	/**
+	 * Used to declare {@link Module}s in parallel or null to declare them one
+	 * after another.
+	 */
+	private final Executor executor;
 
-	private Bindings( Macros macros, Inspector inspector, List<Binding<?>> bindings) {
+	private Bindings( Macros macros, Inspector inspector, List<Binding<?>> bindings, Executor executor ) {
 		this.macros = macros;
 		this.inspector = inspector;
 		this.bindings = bindings;
+		this.executor = executor;
 	}
 
 	public Bindings using( Inspector inspector ) {
-		return new Bindings( macros, inspector, bindings );
+		return new Bindings( macros, inspector, bindings, executor );
+	}
+
+	/**
+	 * @return {@link Bindings} that {@link #declareFrom(Module...)} in parallel
+	 *         using the given {@link Executor}. Each {@link Module} declares
+	 *         into its own buffer, these are added in the order of the
+	 *         modules so that the result is the same as when declaring one
+	 *         after another.
+	 */
+	public Bindings parallel( Executor executor ) {
+		return new Bindings( macros, inspector, bindings, executor );
 	}
 
 	/**
@@ -62,6 +82,47 @@ public final class Bindings {
 	}
 
 	public Binding<?>[] declareFrom( Module... modules ) {
+		if ( executor != null ) {
+			return declareInParallelFrom( modules );
+		}
+		for ( Module m : declaring( modules ) ) {
+			m.declare( this );
+		}
+		return toArray();
+	}
+
+	private Binding<?>[] declareInParallelFrom( Module... modules ) {
+		List<Module> declaring = declaring( modules );
+		List<CompletableFuture<List<Binding<?>>>> buffers = new ArrayList<>( declaring.size() );
+		for ( Module m : declaring ) {
+			buffers.add( CompletableFuture.supplyAsync( () -> {
+				Bindings buffer = new Bindings( macros, inspector, new ArrayList<>(), null );
+				m.declare( buffer );
+				return buffer.bindings;
+			}, executor ) );
+		}
+		for ( CompletableFuture<List<Binding<?>>> buffer : buffers ) {
+			try {
+				bindings.addAll( buffer.join() );
+			} catch ( CompletionException e ) {
+				if ( e.getCause() instanceof RuntimeException ) {
+					throw (RuntimeException) e.getCause();
+				}
+				if ( e.getCause() instanceof Error ) {
+					throw (Error) e.getCause();
+				}
+				throw e;
+			}
+		}
+		return toArray();
+	}
+
+	/**
+	 * @return the {@link Module}s that declare bindings (in order) whereby
+	 *         monomodal modules only declare the first time.
+	 */
+	private static List<Module> declaring( Module... modules ) {
+		List<Module> res = new ArrayList<>( modules.length );
 		Set<Class<?>> declared = new HashSet<>();
 		Set<Class<?>> multimodals = new HashSet<>();
 		for ( Module m : modules ) {
@@ -73,11 +134,11 @@ public final class Bindings {
 				}
 			}
 			if ( !hasBeenDeclared || multimodals.contains( ns ) ) {
-				m.declare( this );
+				res.add( m );
 				declared.add( ns );
 			}
 		}
-		return toArray();
+		return res;
 	}
 
 }
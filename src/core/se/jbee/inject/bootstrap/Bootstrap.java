@@ -8,7 +8,9 @@ package se.jbee.inject.bootstrap;
 import static se.jbee.inject.Dependency.dependency;
 import static se.jbee.inject.Type.raw;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -17,6 +19,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import se.jbee.inject.Array;
 import se.jbee.inject.InconsistentBinding;
@@ -47,6 +51,37 @@ public final class Bootstrap {
 		return injector( bindings, modulariser( globals ).modularise( root ) );
 	}
 
+	/**
+	 * Like {@link #injector(Class, Globals)} but the disambiguated
+	 * {@link Binding}s are loaded from the given snapshot file if it was
+	 * written for the same root, {@link Globals} and classpath. Otherwise they
+	 * are computed as usual and the snapshot is (re)written when all of them
+	 * can be described.
+	 * 
+	 * @see Snapshot
+	 */
+	public static Injector injector( Class<? extends Bundle> root, Globals globals, Path snapshot ) {
+		byte[] fingerprint = Snapshot.fingerprint( root, globals );
+		Binding<?>[] bindings = Snapshot.load( snapshot, fingerprint, root.getClassLoader() );
+		if ( bindings == null ) {
+			bindings = bindings( root, Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), globals );
+			Snapshot.save( snapshot, fingerprint, bindings );
+		}
+		return Inject.container( bindings );
+	}
+
+	/**
+	 * Returns the {@link Injector} right away while its singletons are
+	 * created in the background using the given {@link Executor}.
+	 * 
+	 * @see #warmUp(Injector, Executor)
+	 */
+	public static Injector injector( Class<? extends Bundle> root, Executor warmUp ) {
+		Injector injector = injector( root );
+		warmUp( injector, warmUp );
+		return injector;
+	}
+
 	public static Injector injector( Bindings bindings, Module[] modules ) {
 		return Inject.container( Binding.disambiguate( bindings.declareFrom(modules)) );
 	}
@@ -75,6 +110,49 @@ public final class Bootstrap {
 		}
 	}
 
+	/**
+	 * Like {@link #eagerSingletons(Injector)} but singletons are created in
+	 * parallel using the given {@link Executor}. A singleton is created after
+	 * all singletons it depends upon (as known from bound constructor and
+	 * method parameters) have been created.
+	 * 
+	 * @return the time it took to create each of the singletons
+	 */
+	public static SingletonTimings eagerSingletons( Injector injector, Executor executor ) {
+		return new EagerSingletons( injector ).createAll( executor );
+	}
+
+	/**
+	 * Starts to create the singletons of the given {@link Injector} in the
+	 * background with those most depended upon first.
+	 * 
+	 * @see #warmUp(Injector, Executor, Comparator)
+	 */
+	public static CompletableFuture<SingletonTimings> warmUp( Injector injector, Executor executor ) {
+		return warmUp( injector, executor, null );
+	}
+
+	/**
+	 * Starts a single background task on the given {@link Executor} that
+	 * creates the singletons of the given {@link Injector} one after another
+	 * in the given order. The {@link Injector} can be used right away. Should
+	 * it be asked for a singleton that is currently created by the background
+	 * task it waits for it (and vice versa), no singleton is created twice.
+	 * 
+	 * @param order
+	 *            the order in which to create the singletons or
+	 *            <code>null</code> to create those most depended upon first
+	 * @return completes with the time it took to create each singleton or
+	 *         the first failure
+	 */
+	public static CompletableFuture<SingletonTimings> warmUp( Injector injector, Executor executor,
+			Comparator<? super Injectron<?>> order ) {
+		return CompletableFuture.supplyAsync( () -> {
+			EagerSingletons singletons = new EagerSingletons( injector );
+			return singletons.createInOrder( order == null ? singletons.mostDependedUponFirst() : order );
+		}, executor );
+	}
+
 	public static <T> T instance( Injectron<T> injectron ) {
 		return injectron.instanceFor( dependency( injectron.info().resource.instance ) );
 	}
@@ -0,0 +1,283 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bootstrap;
+
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.container.Inject;
+
+/**
+ * The graph of the never expiring {@link Injectron}s (singletons) of an
+ * {@link Injector} connected by their dependencies as known ahead of time
+ * from bound constructor and method parameters.
+ * 
+ * Dependencies through {@link Injectron}s that are not singletons themselves
+ * are followed to the singletons they depend upon.
+ * 
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+final class EagerSingletons {
+
+	final Injectron<?>[] singletons;
+	/**
+	 * For each of the {@link #singletons} the indexes of the singletons that
+	 * depend on it.
+	 */
+	final int[][] dependents;
+	/**
+	 * For each of the {@link #singletons} the number of singletons it depends
+	 * upon.
+	 */
+	final int[] dependencies;
+
+	EagerSingletons( Injector injector ) {
+		List<Injectron<?>> nodes = new ArrayList<>();
+		Map<Injectron<?>, Integer> index = new IdentityHashMap<>();
+		for ( Injectron<?> i : injector.resolve( dependency( Injectron[].class ) ) ) {
+			if ( i.info().expiry.isNever() ) {
+				index.put( i, nodes.size() );
+				nodes.add( i );
+			}
+		}
+		this.singletons = nodes.toArray( new Injectron<?>[nodes.size()] );
+		this.dependencies = new int[singletons.length];
+		List<List<Integer>> edges = new ArrayList<>( singletons.length );
+		for ( int i = 0; i < singletons.length; i++ ) {
+			edges.add( new ArrayList<>( 2 ) );
+		}
+		for ( int i = 0; i < singletons.length; i++ ) {
+			Set<Injectron<?>> visited = Collections.newSetFromMap( new IdentityHashMap<>() );
+			visited.add( singletons[i] );
+			for ( int dep : singletonDependencies( injector, singletons[i], index, visited, new ArrayList<>() ) ) {
+				edges.get( dep ).add( i );
+				dependencies[i]++;
+			}
+		}
+		this.dependents = new int[singletons.length][];
+		for ( int i = 0; i < singletons.length; i++ ) {
+			List<Integer> e = edges.get( i );
+			dependents[i] = new int[e.size()];
+			for ( int j = 0; j < dependents[i].length; j++ ) {
+				dependents[i][j] = e.get( j );
+			}
+		}
+	}
+
+	private static List<Integer> singletonDependencies( Injector injector, Injectron<?> injectron,
+			Map<Injectron<?>, Integer> index, Set<Injectron<?>> visited, List<Integer> res ) {
+		for ( Injectron<?> dep : Inject.dependencies( injector, injectron ) ) {
+			if ( visited.add( dep ) ) {
+				Integer i = index.get( dep );
+				if ( i != null ) {
+					res.add( i );
+				} else {
+					singletonDependencies( injector, dep, index, visited, res );
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Creates all singletons using the given {@link Executor} whereby a
+	 * singleton is not started before all singletons it depends upon are
+	 * done. Singletons within a dependency cycle are created one after
+	 * another by the calling thread at the end. Should the {@link Executor}
+	 * reject a singleton it is recorded as a failure and those depending on
+	 * it are created by the calling thread at the end as well.
+	 * 
+	 * @throws RuntimeException
+	 *             the first failure (others are suppressed) after all
+	 *             singletons have been attempted (or the {@link Error} if it
+	 *             was one)
+	 */
+	SingletonTimings createAll( Executor executor ) {
+		final int n = singletons.length;
+		final long start = System.nanoTime();
+		final AtomicInteger[] waitingFor = new AtomicInteger[n];
+		for ( int i = 0; i < n; i++ ) {
+			waitingFor[i] = new AtomicInteger( dependencies[i] );
+		}
+		final Injectron<?>[] completed = new Injectron<?>[n];
+		final long[] nanos = new long[n];
+		final AtomicInteger done = new AtomicInteger();
+		final AtomicInteger pending = new AtomicInteger( 1 );
+		final CountDownLatch finished = new CountDownLatch( 1 );
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		class Node implements Runnable {
+
+			final int i;
+			final boolean scheduled;
+
+			Node( int i, boolean scheduled ) {
+				this.i = i;
+				this.scheduled = scheduled;
+			}
+
+			@Override
+			public void run() {
+				long begin = System.nanoTime();
+				try {
+					Bootstrap.instance( singletons[i] );
+				} catch ( Throwable e ) {
+					failed( e );
+				} finally {
+					int k = done.getAndIncrement();
+					completed[k] = singletons[i];
+					nanos[k] = System.nanoTime() - begin;
+					if ( scheduled ) {
+						try {
+							for ( int d : dependents[i] ) {
+								if ( waitingFor[d].decrementAndGet() == 0 ) {
+									schedule( d );
+								}
+							}
+						} finally {
+							completed();
+						}
+					}
+				}
+			}
+
+			void schedule( int d ) {
+				pending.incrementAndGet();
+				try {
+					executor.execute( new Node( d, true ) );
+				} catch ( RejectedExecutionException e ) {
+					completed();
+					failed( e );
+				}
+			}
+
+			void failed( Throwable e ) {
+				if ( !failure.compareAndSet( null, e ) ) {
+					failure.get().addSuppressed( e );
+				}
+			}
+
+			void completed() {
+				if ( pending.decrementAndGet() == 0 ) {
+					finished.countDown();
+				}
+			}
+		}
+		Node starter = new Node( -1, true );
+		for ( int i = 0; i < n; i++ ) {
+			if ( dependencies[i] == 0 ) {
+				starter.schedule( i );
+			}
+		}
+		starter.completed();
+		awaitUninterruptibly( finished );
+		// those still waiting are part of or depend upon a cycle
+		for ( int i = 0; i < n; i++ ) {
+			if ( waitingFor[i].get() > 0 ) {
+				new Node( i, false ).run();
+			}
+		}
+		Throwable e = failure.get();
+		if ( e instanceof Error ) {
+			throw (Error) e;
+		}
+		if ( e instanceof RuntimeException ) {
+			throw (RuntimeException) e;
+		}
+		if ( e != null ) {
+			throw new IllegalStateException( "Failed to create singletons", e );
+		}
+		return new SingletonTimings( completed, nanos, System.nanoTime() - start );
+	}
+
+	/**
+	 * Creates all singletons one after another by the calling thread in the
+	 * given order. Should a singleton already be created by another thread
+	 * the calling thread waits for it.
+	 * 
+	 * @throws RuntimeException
+	 *             the first failure (others are suppressed) after all
+	 *             singletons have been attempted
+	 */
+	SingletonTimings createInOrder( Comparator<? super Injectron<?>> order ) {
+		final long start = System.nanoTime();
+		Injectron<?>[] ordered = singletons.clone();
+		Arrays.sort( ordered, order );
+		long[] nanos = new long[ordered.length];
+		RuntimeException failure = null;
+		for ( int i = 0; i < ordered.length; i++ ) {
+			long begin = System.nanoTime();
+			try {
+				Bootstrap.instance( ordered[i] );
+			} catch ( RuntimeException e ) {
+				if ( failure == null ) {
+					failure = e;
+				} else {
+					failure.addSuppressed( e );
+				}
+			}
+			nanos[i] = System.nanoTime() - begin;
+		}
+		if ( failure != null ) {
+			throw failure;
+		}
+		return new SingletonTimings( ordered, nanos, System.nanoTime() - start );
+	}
+
+	/**
+	 * @return an order where singletons with more (transitive) dependents come
+	 *         first. As a dependency always has more dependents than the
+	 *         singletons depending on it dependencies come first.
+	 */
+	Comparator<Injectron<?>> mostDependedUponFirst() {
+		final Map<Injectron<?>, Integer> counts = new IdentityHashMap<>();
+		for ( int i = 0; i < singletons.length; i++ ) {
+			boolean[] reached = new boolean[singletons.length];
+			counts.put( singletons[i], reach( i, reached ) );
+		}
+		return ( a, b ) -> Integer.compare( counts.getOrDefault( b, 0 ), counts.getOrDefault( a, 0 ) );
+	}
+
+	private int reach( int node, boolean[] reached ) {
+		int c = 0;
+		for ( int d : dependents[node] ) {
+			if ( !reached[d] ) {
+				reached[d] = true;
+				c += 1 + reach( d, reached );
+			}
+		}
+		return c;
+	}
+
+	private static void awaitUninterruptibly( CountDownLatch latch ) {
+		boolean interrupted = false;
+		while ( true ) {
+			try {
+				latch.await();
+				break;
+			} catch ( InterruptedException e ) {
+				interrupted = true;
+			}
+		}
+		if ( interrupted ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
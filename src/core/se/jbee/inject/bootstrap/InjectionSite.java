@@ -18,15 +18,21 @@ import se.jbee.inject.bootstrap.BoundParameter.ParameterType;
  * resolution of arguments from a specific site or path that is represented by a
  * {@link Dependency}.
  * 
+ * The {@link Injectron}s used for the arguments are resolved once when the
+ * site is created (the plan). Arguments that never expire are created once on
+ * first use.
+ * 
  * @author jan
  */
 public final class InjectionSite {
 
+	private static final Dependency<?>[] NO_DEPENDENCIES = new Dependency<?>[0];
+
 	public final Dependency<?> site;
 
 	private final BoundParameter<?>[] parameters;
 	private final Injectron<?>[] injectrons;
-	private final Object[] args;
+	private volatile Object[] args;
 	
 	private final int[] dynamics;
 	private int dynamicsLength = 0;
@@ -37,15 +43,20 @@ public final class InjectionSite {
 		this.parameters = parameters;
 		this.injectrons = new Injectron<?>[parameters.length];
 		this.dynamics = new int[parameters.length];
-		this.args = initNonDynamicParameters(injector);
+		initInjectrons(injector);
 	}
 	
 	public Object[] args(Injector injector) throws UnresolvableDependency {
+		Object[] args = this.args;
+		if (args == null) {
+			args = initNonDynamicArgs();
+			this.args = args;
+		}
 		if (dynamicsLength == 0) {
 			return args;
 		}
 		// in this case we have to copy to become thread-safe!
-		Object[] args = this.args.clone();
+		args = args.clone();
 		for (int j = 0; j < dynamicsLength; j++) {
 			int i = dynamics[j];
 			BoundParameter<?> p = parameters[i];
@@ -59,12 +70,34 @@ public final class InjectionSite {
 		}
 		return args;
 	}
+
+	/**
+	 * @return The {@link Dependency}s of the arguments that are resolved
+	 *         through {@link Injectron}s from this site.
+	 */
+	public Dependency<?>[] injectronDependencies() {
+		int c = 0;
+		for (int i = 0; i < injectrons.length; i++) {
+			if (injectrons[i] != null) {
+				c++;
+			}
+		}
+		if (c == 0) {
+			return NO_DEPENDENCIES;
+		}
+		Dependency<?>[] res = new Dependency<?>[c];
+		c = 0;
+		for (int i = 0; i < injectrons.length; i++) {
+			if (injectrons[i] != null) {
+				res[c++] = site.instanced(parameters[i].instance);
+			}
+		}
+		return res;
+	}
 	
-	private Object[] initNonDynamicParameters(Injector injector) {
-		Object[] args = new Object[parameters.length];
+	private void initInjectrons(Injector injector) {
 		dynamicsLength = 0;
 		for (int i = 0; i < injectrons.length; i++)  {
-			args[i] = null;
 			BoundParameter<?> p = parameters[i];
 			if (p.type == ParameterType.INSTANCE && p.type().arrayDimensions() == 1) {
 				// in this case there is no single injectron, the injector composes the result array from multiple injectrons
@@ -75,21 +108,30 @@ public final class InjectionSite {
 			case INSTANCE:
 				Dependency<? extends Injectron<?>> injDep = site.typed( injectronTypeOf(p.instance.type )).named(p.instance.name);
 				Injectron<?> inj = injector.resolve(injDep);
-				if (inj.info().expiry.isNever()) {
-					args[i] = instance(inj, site.instanced(p.instance));
-				}else {
+				injectrons[i] = inj;
+				if (!inj.info().expiry.isNever()) {
 					dynamics[dynamicsLength++] = i;
-					injectrons[i] = inj;
 				}
 				break;
 			case CONSTANT:
-				args[i] = p.value;
 				break;
 			default:
 			case EXTERNAL:
 				dynamics[dynamicsLength++] = i;
 			}
 		}
+	}
+
+	private Object[] initNonDynamicArgs() {
+		Object[] args = new Object[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			BoundParameter<?> p = parameters[i];
+			if (p.type == ParameterType.CONSTANT) {
+				args[i] = p.value;
+			} else if (p.type == ParameterType.INSTANCE && injectrons[i].info().expiry.isNever()) {
+				args[i] = instance(injectrons[i], site.instanced(p.instance));
+			}
+		}
 		return args;
 	}
 	
@@ -5,10 +5,24 @@
  */
 package se.jbee.inject.bootstrap;
 
+import static java.lang.invoke.MethodType.genericMethodType;
+
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.bootstrap.Invoker.Invocation;
 
 /**
  * A util to invoke {@link Constructor}s or {@link Method}s that converts checked {@link Exception}s
@@ -18,6 +32,35 @@ import se.jbee.inject.UnresolvableDependency.SupplyFailed;
  */
 public final class Invoke {
 
+	static final int MAX_GENERATED_ARITY = 6;
+
+	/**
+	 * Uses {@link Constructor#newInstance(Object...)} and
+	 * {@link Method#invoke(Object, Object...)} for each call.
+	 */
+	public static final Invoker REFLECTION = new ReflectionInvoker();
+
+	/**
+	 * Converts each {@link Constructor} or {@link Method} to a
+	 * {@link MethodHandle} once. Falls back to {@link #REFLECTION} should that
+	 * not be possible.
+	 */
+	public static final Invoker METHOD_HANDLES = new MethodHandleInvoker();
+
+	/**
+	 * Generates a class per {@link Constructor} or {@link Method} (using the
+	 * {@link LambdaMetafactory}) that calls it directly. This is possible for
+	 * public members of public classes with up to
+	 * {@value #MAX_GENERATED_ARITY} parameters (including the owner of
+	 * instance methods). Falls back to {@link #METHOD_HANDLES} otherwise.
+	 */
+	public static final Invoker GENERATED = new GeneratedInvoker();
+
+	/**
+	 * The {@link Invoker} used unless another one is given explicitly.
+	 */
+	public static final Invoker DEFAULT = METHOD_HANDLES;
+
 	private Invoke() {
 		throw new UnsupportedOperationException( "util" );
 	}
@@ -38,4 +81,257 @@ public final class Invoke {
 		}
 	}
 
+	private static final class ReflectionInvoker implements Invoker {
+
+		ReflectionInvoker() {
+			// make visible
+		}
+
+		@Override
+		public <T> Invocation<T> constructor( Constructor<T> constructor ) {
+			return (owner, args) -> Invoke.constructor( constructor, args );
+		}
+
+		@Override
+		public Invocation<?> method( Method method ) {
+			return (owner, args) -> Invoke.method( method, owner, args );
+		}
+
+		@Override
+		public String toString() {
+			return "reflection";
+		}
+	}
+
+	private static final class MethodHandleInvoker implements Invoker {
+
+		private static final Lookup LOOKUP = MethodHandles.lookup();
+
+		MethodHandleInvoker() {
+			// make visible
+		}
+
+		@Override
+		public <T> Invocation<T> constructor( Constructor<T> constructor ) {
+			MethodHandle handle;
+			try {
+				handle = LOOKUP.unreflectConstructor( constructor ).asFixedArity();
+			} catch ( IllegalAccessException e ) {
+				return REFLECTION.constructor( constructor );
+			}
+			return new HandleInvocation<>( constructor,	spread( handle, false ) );
+		}
+
+		@Override
+		public Invocation<?> method( Method method ) {
+			MethodHandle handle;
+			try {
+				handle = LOOKUP.unreflect( method ).asFixedArity();
+			} catch ( IllegalAccessException e ) {
+				return REFLECTION.method( method );
+			}
+			boolean instanceMethod = !Modifier.isStatic( method.getModifiers() );
+			return new HandleInvocation<>( method, spread( handle, instanceMethod ) );
+		}
+
+		/**
+		 * @return A {@link MethodHandle} of type <code>(Object,Object[])Object</code>
+		 */
+		private static MethodHandle spread( MethodHandle handle, boolean hasOwner ) {
+			int params = handle.type().parameterCount();
+			handle = handle.asType( genericMethodType( params ) );
+			if ( !hasOwner ) {
+				handle = MethodHandles.dropArguments( handle, 0, Object.class );
+				params++;
+			}
+			return handle.asSpreader( Object[].class, params - 1 );
+		}
+
+		@Override
+		public String toString() {
+			return "method-handles";
+		}
+	}
+
+	private static final class HandleInvocation<T> implements Invocation<T> {
+
+		private final AccessibleObject invoked;
+		private final MethodHandle handle;
+
+		HandleInvocation( AccessibleObject invoked, MethodHandle handle ) {
+			super();
+			this.invoked = invoked;
+			this.handle = handle;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public T invoke( Object owner, Object[] args ) throws SupplyFailed {
+			try {
+				return (T) (Object) handle.invokeExact( owner, args );
+			} catch ( Throwable e ) { // errors as well, as reflection does
+				throw new SupplyFailed( "Failed to invoke: " + invoked, e );
+			}
+		}
+
+		@Override
+		public String toString() {
+			return invoked.toString();
+		}
+	}
+
+	private static final class GeneratedInvoker implements Invoker {
+
+		private static final Lookup LOOKUP = MethodHandles.lookup();
+		private static final Logger LOG = Logger.getLogger( GeneratedInvoker.class.getName() );
+
+		private static final Class<?>[] SHAPES = { F0.class, F1.class,
+				F2.class, F3.class, F4.class, F5.class, F6.class };
+
+		GeneratedInvoker() {
+			// make visible
+		}
+
+		@Override
+		public <T> Invocation<T> constructor( Constructor<T> constructor ) {
+			Class<?>[] params = constructor.getParameterTypes();
+			if ( !isGeneratable( constructor, params.length ) ) {
+				return METHOD_HANDLES.constructor( constructor );
+			}
+			try {
+				MethodHandle impl = LOOKUP.unreflectConstructor( constructor );
+				MethodType type = MethodType.methodType( constructor.getDeclaringClass(), params ).wrap();
+				return new GeneratedInvocation<>( constructor, unpacking( generate( impl, type ), params.length, false ) );
+			} catch ( IllegalAccessException | LambdaConversionException e ) {
+				fallback( constructor, e );
+				return METHOD_HANDLES.constructor( constructor );
+			}
+		}
+
+		@Override
+		public Invocation<?> method( Method method ) {
+			boolean instanceMethod = !Modifier.isStatic( method.getModifiers() );
+			Class<?>[] params = method.getParameterTypes();
+			if ( method.getReturnType() == void.class
+					|| !isGeneratable( method, params.length + ( instanceMethod ? 1 : 0 ) ) ) {
+				return METHOD_HANDLES.method( method );
+			}
+			try {
+				MethodHandle impl = LOOKUP.unreflect( method );
+				MethodType type = MethodType.methodType( method.getReturnType(), params );
+				if ( instanceMethod ) {
+					type = type.insertParameterTypes( 0, method.getDeclaringClass() );
+				}
+				return new GeneratedInvocation<>( method, unpacking( generate( impl, type.wrap() ), params.length, instanceMethod ) );
+			} catch ( IllegalAccessException | LambdaConversionException e ) {
+				fallback( method, e );
+				return METHOD_HANDLES.method( method );
+			}
+		}
+
+		private static void fallback( Member member, Exception e ) {
+			LOG.log( Level.FINE, "Falling back to method handles for: " + member, e );
+		}
+
+		private static boolean isGeneratable( Member member, int arity ) {
+			return arity <= MAX_GENERATED_ARITY
+					&& Modifier.isPublic( member.getModifiers() )
+					&& isPublic( member.getDeclaringClass() );
+		}
+
+		private static boolean isPublic( Class<?> type ) {
+			while ( type != null ) {
+				if ( !Modifier.isPublic( type.getModifiers() ) ) {
+					return false;
+				}
+				type = type.getEnclosingClass();
+			}
+			return true;
+		}
+
+		/**
+		 * @return an instance of the shape interface for the arity of the given
+		 *         type that directly calls the given implementation
+		 */
+		private static Object generate( MethodHandle impl, MethodType type ) throws LambdaConversionException {
+			int arity = type.parameterCount();
+			Class<?> shape = SHAPES[arity];
+			MethodType sam = MethodType.genericMethodType( arity );
+			MethodHandle factory = LambdaMetafactory.metafactory( LOOKUP, "apply", MethodType.methodType( shape ),
+					sam, impl, type ).getTarget();
+			try {
+				return factory.invoke();
+			} catch ( RuntimeException | Error e ) {
+				throw e;
+			} catch ( Throwable e ) { // the factory of a non-capturing lambda does not throw checked exceptions
+				throw new LambdaConversionException( "Failed to create: " + shape, e );
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "generated";
+		}
+	}
+
+	private static Invocation<?> unpacking( Object f, int params, boolean hasOwner ) {
+		if ( hasOwner ) {
+			switch ( params ) {
+			case 0: return (o, a) -> ((F1) f).apply( o );
+			case 1: return (o, a) -> ((F2) f).apply( o, a[0] );
+			case 2: return (o, a) -> ((F3) f).apply( o, a[0], a[1] );
+			case 3: return (o, a) -> ((F4) f).apply( o, a[0], a[1], a[2] );
+			case 4: return (o, a) -> ((F5) f).apply( o, a[0], a[1], a[2], a[3] );
+			default: return (o, a) -> ((F6) f).apply( o, a[0], a[1], a[2], a[3], a[4] );
+			}
+		}
+		switch ( params ) {
+		case 0: return (o, a) -> ((F0) f).apply();
+		case 1: return (o, a) -> ((F1) f).apply( a[0] );
+		case 2: return (o, a) -> ((F2) f).apply( a[0], a[1] );
+		case 3: return (o, a) -> ((F3) f).apply( a[0], a[1], a[2] );
+		case 4: return (o, a) -> ((F4) f).apply( a[0], a[1], a[2], a[3] );
+		case 5: return (o, a) -> ((F5) f).apply( a[0], a[1], a[2], a[3], a[4] );
+		default: return (o, a) -> ((F6) f).apply( a[0], a[1], a[2], a[3], a[4], a[5] );
+		}
+	}
+
+	private static final class GeneratedInvocation<T> implements Invocation<T> {
+
+		private final AccessibleObject invoked;
+		private final Invocation<?> call;
+
+		GeneratedInvocation( AccessibleObject invoked, Invocation<?> call ) {
+			super();
+			this.invoked = invoked;
+			this.call = call;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public T invoke( Object owner, Object[] args ) throws SupplyFailed {
+			try {
+				return (T) call.invoke( owner, args );
+			} catch ( Throwable e ) {
+				throw new SupplyFailed( "Failed to invoke: " + invoked, e );
+			}
+		}
+
+		@Override
+		public String toString() {
+			return invoked.toString();
+		}
+	}
+
+	/*
+	 * Shapes of the generated classes by arity:
+	 */
+
+	interface F0 { Object apply(); }
+	interface F1 { Object apply( Object a ); }
+	interface F2 { Object apply( Object a, Object b ); }
+	interface F3 { Object apply( Object a, Object b, Object c ); }
+	interface F4 { Object apply( Object a, Object b, Object c, Object d ); }
+	interface F5 { Object apply( Object a, Object b, Object c, Object d, Object e ); }
+	interface F6 { Object apply( Object a, Object b, Object c, Object d, Object e, Object f ); }
 }
@@ -0,0 +1,47 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bootstrap;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+
+/**
+ * A strategy to invoke {@link Constructor}s and {@link Method}s. Each
+ * {@linkplain Constructor} or {@linkplain Method} is prepared once (when
+ * bootstrapping) and the resulting {@link Invocation} is used for all calls.
+ * 
+ * @see Invoke#REFLECTION
+ * @see Invoke#METHOD_HANDLES
+ * 
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public interface Invoker {
+
+	/**
+	 * A prepared call of a {@link Constructor} or {@link Method}.
+	 *
+	 * @param <T> type of the value returned
+	 */
+	@FunctionalInterface
+	interface Invocation<T> {
+
+		/**
+		 * @param owner
+		 *            the instance a instance {@link Method} is invoked upon,
+		 *            ignored for {@link Constructor}s and static
+		 *            {@link Method}s
+		 * @param args
+		 *            the arguments (not modified)
+		 */
+		T invoke( Object owner, Object[] args ) throws SupplyFailed;
+	}
+
+	<T> Invocation<T> constructor( Constructor<T> constructor );
+
+	Invocation<?> method( Method method );
+}
@@ -36,8 +36,8 @@ public final class Macros {
 	public static final Macro<Class<?>> PARAMETRIZED_LINK = new TypeParametrizedLinkMacro();
 	public static final Macro<Instance<?>> INSTANCE_LINK = new LinkMacro();
 	public static final Macro<Parameter<?>[]> ARRAY = new ArrayElementsMacro();
-	public static final Macro<BoundConstructor<?>> CONSTRUCTOR = new ConstructorMacro();
-	public static final Macro<BoundMethod<?>> FACTORY_METHOD = new MethodMacro();
+	public static final Macro<BoundConstructor<?>> CONSTRUCTOR = constructor( Invoke.DEFAULT );
+	public static final Macro<BoundMethod<?>> FACTORY_METHOD = factoryMethod( Invoke.DEFAULT );
 
 	public static final Macros NONE = new Macros( new Class<?>[0], new Macro<?>[0] );
 
@@ -45,6 +45,14 @@ public final class Macros {
 			.with( EXPAND ).with( CONSTRUCTOR ).with( FACTORY_METHOD )
 			.with( INSTANCE_LINK ).with( PARAMETRIZED_LINK ).with( ARRAY );
 
+	public static Macro<BoundConstructor<?>> constructor( Invoker invoker ) {
+		return new ConstructorMacro( invoker );
+	}
+
+	public static Macro<BoundMethod<?>> factoryMethod( Invoker invoker ) {
+		return new MethodMacro( invoker );
+	}
+
 	private final Class<?>[] types;
 	private final Macro<?>[] macros;
 
@@ -83,6 +91,27 @@ public final class Macros {
 		return new Macros( Array.prepand(type, types), Array.prepand( macro, macros ) );
 	}
 
+	/**
+	 * @return A set of {@link Macros} that uses the given {@link Invoker} to
+	 *         call bound {@link Constructor}s and factory methods.
+	 */
+	public Macros invokingBy( Invoker invoker ) {
+		return with( BoundConstructor.class, constructor( invoker ) )
+				.with( BoundMethod.class, factoryMethod( invoker ) );
+	}
+
+	/**
+	 * @return The {@link Invoker} used to call bound factory methods or
+	 *         {@link Invoke#DEFAULT} in case the {@link Macro} for
+	 *         {@link BoundMethod}s is not one of {@link #factoryMethod(Invoker)}
+	 */
+	public Invoker invoker() {
+		int index = index( BoundMethod.class );
+		return index >= 0 && macros[index] instanceof MethodMacro
+			? ( (MethodMacro) macros[index] ).invoker
+			: Invoke.DEFAULT;
+	}
+
 	/**
 	 * A generic version of {@link Macro#expand(Object, Binding, Bindings)} that
 	 * uses the matching predefined {@link Macro} for the actual type of the
@@ -164,24 +193,32 @@ public final class Macros {
 	private static final class ConstructorMacro
 			implements Macro<BoundConstructor<?>> {
 
-		ConstructorMacro() { /* make visible */ }
+		private final Invoker invoker;
+
+		ConstructorMacro( Invoker invoker ) {
+			this.invoker = invoker;
+		}
 
 		@Override
 		public <T> void expand(BoundConstructor<?> constructor, Binding<T> incomplete, Bindings bindings) {
 			bindings.expandInto( 
-					incomplete.complete( BindingType.CONSTRUCTOR, costructor( constructor.typed( incomplete.type() ) ) ));
+					incomplete.complete( BindingType.CONSTRUCTOR, costructor( constructor.typed( incomplete.type() ), invoker ) ));
 		}
 	}
 
 	private static final class MethodMacro
 			implements Macro<BoundMethod<?>> {
 
-		MethodMacro() {	/* make visible */ }
+		private final Invoker invoker;
+
+		MethodMacro( Invoker invoker ) {
+			this.invoker = invoker;
+		}
 		
 		@Override
 		public <T> void expand(BoundMethod<?> method, Binding<T> incomplete, Bindings bindings) {
 			bindings.expandInto( 
-					incomplete.complete( METHOD, Supply.method( method.typed( incomplete.type() ) ) ));
+					incomplete.complete( METHOD, Supply.method( method.typed( incomplete.type() ), invoker ) ));
 		}
 	}
 
@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bootstrap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import se.jbee.inject.Injectron;
+
+/**
+ * The time it took to create each eager singleton.
+ * 
+ * @see Bootstrap#eagerSingletons(se.jbee.inject.Injector, java.util.concurrent.Executor)
+ * 
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class SingletonTimings {
+
+	/**
+	 * The singletons in order of completion.
+	 */
+	public final Injectron<?>[] injectrons;
+
+	/**
+	 * Time in nanoseconds it took to create the singleton at the same index in
+	 * {@link #injectrons} (including waiting for singletons it depends upon
+	 * but are not known ahead of time).
+	 */
+	public final long[] nanos;
+
+	/**
+	 * Time in nanoseconds from start to the completion of the last singleton.
+	 */
+	public final long totalNanos;
+
+	public SingletonTimings( Injectron<?>[] injectrons, long[] nanos, long totalNanos ) {
+		super();
+		this.injectrons = injectrons;
+		this.nanos = nanos;
+		this.totalNanos = totalNanos;
+	}
+
+	/**
+	 * @return time in nanoseconds it took to create the singleton of the given
+	 *         {@link Injectron} or -1 if it has not been created eagerly
+	 */
+	public long nanos( Injectron<?> injectron ) {
+		for ( int i = 0; i < injectrons.length; i++ ) {
+			if ( injectrons[i] == injectron ) {
+				return nanos[i];
+			}
+		}
+		return -1L;
+	}
+
+	@Override
+	public String toString() {
+		Integer[] slowest = new Integer[injectrons.length];
+		for ( int i = 0; i < slowest.length; i++ ) {
+			slowest[i] = i;
+		}
+		Arrays.sort( slowest, Comparator.comparingLong( ( Integer i ) -> nanos[i] ).reversed() );
+		StringBuilder b = new StringBuilder();
+		b.append( injectrons.length ).append( " singletons in " ).append( totalNanos / 1000000L ).append( "ms" );
+		for ( int i = 0; i < Math.min( 10, slowest.length ); i++ ) {
+			int s = slowest[i];
+			b.append( "\n\t" ).append( nanos[s] / 1000000L ).append( "ms " ).append( injectrons[s] );
+		}
+		return b.toString();
+	}
+}
@@ -0,0 +1,746 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bootstrap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import se.jbee.inject.DeclarationType;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Instance;
+import se.jbee.inject.Name;
+import se.jbee.inject.Packages;
+import se.jbee.inject.Resource;
+import se.jbee.inject.Source;
+import se.jbee.inject.Supplier;
+import se.jbee.inject.Target;
+import se.jbee.inject.Type;
+import se.jbee.inject.bootstrap.BoundParameter.ParameterType;
+import se.jbee.inject.config.Globals;
+import se.jbee.inject.container.Factory;
+import se.jbee.inject.container.Scope;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * A compact binary format for the disambiguated {@link Binding}s of a root
+ * {@link Bundle}. Restoring a snapshot skips modularisation, macro expansion,
+ * inspection and disambiguation.
+ *
+ * A snapshot is only valid for the {@link #fingerprint(Class, Globals)} it
+ * was written for. That is the root bundle, the {@link Globals} and the
+ * classpath (names, sizes and modification times of all its files).
+ *
+ * Only {@link Binding}s whose {@link Supplier}s are described by their
+ * signatures can be written. These are constructors, methods (that are not
+ * bound to an instance), constants, links (instances, references and
+ * dependencies) and element arrays of those. Constants, {@link Scope}s,
+ * {@link Invoker}s and other suppliers have to be simple values (strings,
+ * primitives, enums, classes), <code>static final</code> fields or
+ * stateless {@link Supplier}, {@link Scope}, {@link Invoker} or
+ * {@link Factory} classes with a no-args constructor. Otherwise writing fails
+ * with a {@link NotSerializableException}. Reading only instantiates classes
+ * of those types.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class Snapshot {
+
+	private static final Logger LOG = Logger.getLogger( Snapshot.class.getName() );
+
+	private static final int MAGIC = 0x53494c4b; // SILK
+	private static final int VERSION = 1;
+
+	/**
+	 * Classes that hold the {@code static final} fields usually used as
+	 * constants, scopes or suppliers.
+	 */
+	private static final Class<?>[] HOLDERS = { Scoped.class, Supply.class, Invoke.class };
+
+	public static byte[] fingerprint( Class<? extends Bundle> root, Globals globals ) {
+		MessageDigest digest = sha256();
+		update( digest, MAGIC + ":" + VERSION + ":" + root.getName() + ":" + globals );
+		update( digest, System.getProperty( "java.version" ) );
+		for ( String entry : System.getProperty( "java.class.path", "" ).split( File.pathSeparator ) ) {
+			if ( !entry.isEmpty() ) {
+				update( digest, entry );
+				for ( String file : files( new File( entry ).toPath() ) ) {
+					update( digest, file );
+				}
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * @return the {@link Binding}s stored in the given file or
+	 *         <code>null</code> if it does not exist, has a different
+	 *         fingerprint or cannot be read.
+	 */
+	public static Binding<?>[] load( Path file, byte[] fingerprint, ClassLoader loader ) {
+		try ( InputStream in = Files.newInputStream( file ) ) {
+			return read( in, fingerprint, loader );
+		} catch ( NoSuchFileException e ) {
+			return null;
+		} catch ( IOException e ) {
+			LOG.log( Level.INFO, "Ignoring unreadable snapshot " + file, e );
+			return null;
+		}
+	}
+
+	/**
+	 * @return true, if the snapshot file was written, false if any of the
+	 *         {@link Binding}s cannot be described or the file cannot be
+	 *         written.
+	 */
+	public static boolean save( Path file, byte[] fingerprint, Binding<?>[] bindings ) {
+		Path tmp = null;
+		try {
+			tmp = Files.createTempFile( file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp" );
+			try ( OutputStream out = Files.newOutputStream( tmp ) ) {
+				write( bindings, fingerprint, out );
+			}
+			Files.move( tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+			return true;
+		} catch ( IOException e ) {
+			LOG.log( Level.INFO, "Snapshot " + file + " not written: " + e.getMessage() );
+			try {
+				if ( tmp != null ) {
+					Files.deleteIfExists( tmp );
+				}
+			} catch ( IOException ex ) {
+				// nothing we can do
+			}
+			return false;
+		}
+	}
+
+	public static void write( Binding<?>[] bindings, byte[] fingerprint, OutputStream out ) throws IOException {
+		// encode fully before writing anything so a failure does not leave a partial snapshot
+		ByteArrayOutputStream buf = new ByteArrayOutputStream( 64 * bindings.length );
+		Writer writer = new Writer( new DataOutputStream( buf ) );
+		writer.out.writeInt( bindings.length );
+		for ( Binding<?> b : bindings ) {
+			writer.binding( b );
+		}
+		writer.out.flush();
+		DataOutputStream data = new DataOutputStream( new BufferedOutputStream( out ) );
+		data.writeInt( MAGIC );
+		data.writeInt( VERSION );
+		data.writeInt( fingerprint.length );
+		data.write( fingerprint );
+		buf.writeTo( data );
+		data.flush();
+	}
+
+	/**
+	 * @return the {@link Binding}s read or <code>null</code> if the snapshot
+	 *         has a different fingerprint.
+	 */
+	public static Binding<?>[] read( InputStream in, byte[] fingerprint, ClassLoader loader ) throws IOException {
+		DataInputStream data = new DataInputStream( new BufferedInputStream( in ) );
+		if ( data.readInt() != MAGIC || data.readInt() != VERSION ) {
+			return null;
+		}
+		byte[] actual = new byte[data.readInt()];
+		data.readFully( actual );
+		if ( !Arrays.equals( fingerprint, actual ) ) {
+			return null;
+		}
+		Reader reader = new Reader( data, loader );
+		Binding<?>[] bindings = new Binding<?>[data.readInt()];
+		try {
+			for ( int i = 0; i < bindings.length; i++ ) {
+				bindings[i] = reader.binding();
+			}
+		} catch ( ReflectiveOperationException | RuntimeException | LinkageError e ) {
+			throw new StreamCorruptedException( "Snapshot does not match classes: " + e );
+		}
+		return bindings;
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance( "SHA-256" );
+		} catch ( NoSuchAlgorithmException e ) {
+			throw new IllegalStateException( e );
+		}
+	}
+
+	private static void update( MessageDigest digest, String value ) {
+		digest.update( value.getBytes( StandardCharsets.UTF_8 ) );
+		digest.update( (byte) 0 );
+	}
+
+	private static List<String> files( Path root ) {
+		if ( !Files.exists( root ) ) {
+			return Collections.emptyList();
+		}
+		List<String> files = new ArrayList<>();
+		try ( Stream<Path> paths = Files.walk( root ) ) {
+			paths.forEach( p -> {
+				File f = p.toFile();
+				if ( f.isFile() ) {
+					files.add( root.relativize( p ) + ":" + f.length() + ":" + f.lastModified() );
+				}
+			} );
+		} catch ( IOException | UncheckedIOException e ) {
+			files.add( "?" + e.getMessage() );
+		}
+		Collections.sort( files );
+		return files;
+	}
+
+	private Snapshot() {
+		throw new UnsupportedOperationException( "util" );
+	}
+
+	// value tags
+	private static final byte V_NULL = 0;
+	private static final byte V_STRING = 1;
+	private static final byte V_BOOLEAN = 2;
+	private static final byte V_BYTE = 3;
+	private static final byte V_SHORT = 4;
+	private static final byte V_CHAR = 5;
+	private static final byte V_INT = 6;
+	private static final byte V_LONG = 7;
+	private static final byte V_FLOAT = 8;
+	private static final byte V_DOUBLE = 9;
+	private static final byte V_ENUM = 10;
+	private static final byte V_CLASS = 11;
+	private static final byte V_STATIC = 12;
+	private static final byte V_STATELESS = 13;
+
+	/**
+	 * The only types of values written (and read) as {@link #V_STATELESS}.
+	 */
+	private static final Class<?>[] STATELESS_TYPES = { Supplier.class, Scope.class, Invoker.class, Factory.class };
+
+	private static boolean isStatelessType( Class<?> type ) {
+		for ( Class<?> t : STATELESS_TYPES ) {
+			if ( t.isAssignableFrom( type ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// supplier tags
+	private static final byte S_SHARED = 0;
+	private static final byte S_VALUE = 1;
+	private static final byte S_CONSTANT = 2;
+	private static final byte S_INSTANCE = 3;
+	private static final byte S_PARAMETRIZED = 4;
+	private static final byte S_DEPENDENCY = 5;
+	private static final byte S_REFERENCE = 6;
+	private static final byte S_ELEMENTS = 7;
+	private static final byte S_CONSTRUCTOR = 8;
+	private static final byte S_METHOD = 9;
+	private static final byte S_FACTORY = 10;
+
+	private static final class Writer {
+
+		final DataOutputStream out;
+		private final Map<String, Integer> strings = new HashMap<>();
+		private final Map<Supplier<?>, Integer> suppliers = new IdentityHashMap<>();
+		private Class<?> source;
+
+		Writer( DataOutputStream out ) {
+			this.out = out;
+		}
+
+		void binding( Binding<?> b ) throws IOException {
+			source = b.source.ident;
+			resource( b.resource );
+			string( b.type.name() );
+			supplier( b.supplier );
+			value( b.scope );
+			type( b.source.ident );
+			string( b.source.declarationType.name() );
+			out.writeInt( b.source.declarationNo );
+		}
+
+		private void resource( Resource<?> resource ) throws IOException {
+			instance( resource.instance );
+			Target target = resource.target;
+			instance( target.instance );
+			string( String.valueOf( target.packages.includesSubpackages() ) );
+			String[] roots = target.packages.roots();
+			out.writeShort( roots.length );
+			for ( String root : roots ) {
+				string( root );
+			}
+			out.writeShort( target.parents.depth() );
+			for ( int i = 0; i < target.parents.depth(); i++ ) {
+				instance( target.parents.at( i ) );
+			}
+		}
+
+		private void instance( Instance<?> instance ) throws IOException {
+			string( instance.name.toString() );
+			type( instance.type );
+		}
+
+		private void type( Type<?> type ) throws IOException {
+			out.writeBoolean( type.isUpperBound() );
+			Class<?> base = type.rawType;
+			while ( base.isArray() ) {
+				base = base.getComponentType();
+			}
+			type( base );
+			out.writeByte( type.arrayDimensions() );
+			Type<?>[] params = type.parameters();
+			out.writeByte( params.length );
+			for ( Type<?> param : params ) {
+				type( param );
+			}
+		}
+
+		private void type( Class<?> type ) throws IOException {
+			if ( type.isSynthetic() || type.getName().contains( "$$Lambda$" ) ) {
+				throw new NotSerializableException( "synthetic " + type.getName() );
+			}
+			string( type.getName() );
+		}
+
+		private void supplier( Supplier<?> supplier ) throws IOException {
+			Integer shared = suppliers.get( supplier );
+			if ( shared != null ) {
+				out.writeByte( S_SHARED );
+				out.writeInt( shared );
+				return;
+			}
+			if ( supplier instanceof Supply.ConstantSupplier ) {
+				out.writeByte( S_CONSTANT );
+				value( ( (Supply.ConstantSupplier<?>) supplier ).constant );
+			} else if ( supplier instanceof Supply.InstanceSupplier ) {
+				out.writeByte( S_INSTANCE );
+				instance( ( (Supply.InstanceSupplier<?>) supplier ).instance );
+			} else if ( supplier instanceof Supply.ParametrizedInstanceSupplier ) {
+				out.writeByte( S_PARAMETRIZED );
+				instance( ( (Supply.ParametrizedInstanceSupplier<?>) supplier ).instance );
+			} else if ( supplier instanceof Supply.DependencySupplier ) {
+				Dependency<?> dependency = ( (Supply.DependencySupplier<?>) supplier ).dependency;
+				if ( dependency.injectionDepth() > 0 ) {
+					throw new NotSerializableException( "targeted " + dependency );
+				}
+				out.writeByte( S_DEPENDENCY );
+				instance( dependency.instance );
+			} else if ( supplier instanceof Supply.BridgeSupplier ) {
+				out.writeByte( S_REFERENCE );
+				type( ( (Supply.BridgeSupplier<?>) supplier ).type );
+			} else if ( supplier instanceof Supply.PredefinedArraySupplier ) {
+				Supply.PredefinedArraySupplier<?> elements = (Supply.PredefinedArraySupplier<?>) supplier;
+				out.writeByte( S_ELEMENTS );
+				type( elements.arrayType );
+				parameters( elements.params );
+			} else if ( supplier instanceof Supply.ConstructorSupplier ) {
+				Supply.ConstructorSupplier<?> constructor = (Supply.ConstructorSupplier<?>) supplier;
+				out.writeByte( S_CONSTRUCTOR );
+				value( constructor.invoker );
+				type( constructor.constructor.getDeclaringClass() );
+				types( constructor.constructor.getParameterTypes() );
+				parameters( constructor.params );
+			} else if ( supplier instanceof Supply.MethodSupplier ) {
+				Supply.MethodSupplier<?> method = (Supply.MethodSupplier<?>) supplier;
+				if ( method.method.instance != null ) {
+					throw new NotSerializableException( "method bound to instance " + method );
+				}
+				out.writeByte( S_METHOD );
+				value( method.invoker );
+				Method m = method.method.factory;
+				type( m.getDeclaringClass() );
+				string( m.getName() );
+				types( m.getParameterTypes() );
+				type( method.method.returnType );
+				parameters( method.params );
+			} else if ( supplier instanceof Supply.FactorySupplier ) {
+				out.writeByte( S_FACTORY );
+				value( ( (Supply.FactorySupplier<?>) supplier ).factory );
+			} else {
+				out.writeByte( S_VALUE );
+				value( supplier );
+			}
+			suppliers.put( supplier, suppliers.size() );
+		}
+
+		private void parameters( BoundParameter<?>[] params ) throws IOException {
+			out.writeShort( params.length );
+			for ( BoundParameter<?> p : params ) {
+				string( p.type.name() );
+				type( p.asType );
+				out.writeBoolean( p.instance != null );
+				if ( p.instance != null ) {
+					instance( p.instance );
+				}
+				value( p.value );
+				supplier( p.supplier );
+			}
+		}
+
+		private void types( Class<?>[] types ) throws IOException {
+			out.writeShort( types.length );
+			for ( Class<?> t : types ) {
+				type( t );
+			}
+		}
+
+		private void value( Object value ) throws IOException {
+			if ( value == null ) {
+				out.writeByte( V_NULL );
+			} else if ( value instanceof String ) {
+				out.writeByte( V_STRING );
+				out.writeUTF( (String) value );
+			} else if ( value instanceof Boolean ) {
+				out.writeByte( V_BOOLEAN );
+				out.writeBoolean( (Boolean) value );
+			} else if ( value instanceof Byte ) {
+				out.writeByte( V_BYTE );
+				out.writeByte( (Byte) value );
+			} else if ( value instanceof Short ) {
+				out.writeByte( V_SHORT );
+				out.writeShort( (Short) value );
+			} else if ( value instanceof Character ) {
+				out.writeByte( V_CHAR );
+				out.writeChar( (Character) value );
+			} else if ( value instanceof Integer ) {
+				out.writeByte( V_INT );
+				out.writeInt( (Integer) value );
+			} else if ( value instanceof Long ) {
+				out.writeByte( V_LONG );
+				out.writeLong( (Long) value );
+			} else if ( value instanceof Float ) {
+				out.writeByte( V_FLOAT );
+				out.writeFloat( (Float) value );
+			} else if ( value instanceof Double ) {
+				out.writeByte( V_DOUBLE );
+				out.writeDouble( (Double) value );
+			} else if ( value instanceof Enum ) {
+				out.writeByte( V_ENUM );
+				type( ( (Enum<?>) value ).getDeclaringClass() );
+				string( ( (Enum<?>) value ).name() );
+			} else if ( value instanceof Class ) {
+				out.writeByte( V_CLASS );
+				type( (Class<?>) value );
+			} else {
+				Field field = staticField( value );
+				if ( field != null ) {
+					out.writeByte( V_STATIC );
+					type( field.getDeclaringClass() );
+					string( field.getName() );
+				} else if ( isStateless( value.getClass() ) ) {
+					out.writeByte( V_STATELESS );
+					type( value.getClass() );
+				} else {
+					throw new NotSerializableException( value.getClass().getName() + ": " + value );
+				}
+			}
+		}
+
+		private Field staticField( Object value ) {
+			for ( Class<?> c = value.getClass(); c != null; c = c.getEnclosingClass() ) {
+				Field f = staticField( c, value );
+				if ( f != null ) {
+					return f;
+				}
+			}
+			for ( Class<?> c = source; c != null; c = c.getEnclosingClass() ) {
+				Field f = staticField( c, value );
+				if ( f != null ) {
+					return f;
+				}
+			}
+			for ( Class<?> c : HOLDERS ) {
+				Field f = staticField( c, value );
+				if ( f != null ) {
+					return f;
+				}
+			}
+			return null;
+		}
+
+		private static Field staticField( Class<?> holder, Object value ) {
+			for ( Field f : holder.getDeclaredFields() ) {
+				int modifiers = f.getModifiers();
+				if ( Modifier.isStatic( modifiers ) && Modifier.isFinal( modifiers ) && !f.getType().isPrimitive() ) {
+					try {
+						if ( Metaclass.accessible( f ).get( null ) == value ) {
+							return f;
+						}
+					} catch ( IllegalAccessException | RuntimeException e ) {
+						// not a candidate
+					}
+				}
+			}
+			return null;
+		}
+
+		private static boolean isStateless( Class<?> type ) {
+			if ( type.isSynthetic() || type.isAnonymousClass() || type.isLocalClass() || !isStatelessType( type ) ) {
+				return false;
+			}
+			try {
+				type.getDeclaredConstructor();
+			} catch ( NoSuchMethodException e ) {
+				return false;
+			}
+			for ( Class<?> c = type; c != Object.class; c = c.getSuperclass() ) {
+				for ( Field f : c.getDeclaredFields() ) {
+					if ( !Modifier.isStatic( f.getModifiers() ) ) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		private void string( String value ) throws IOException {
+			Integer index = strings.get( value );
+			if ( index != null ) {
+				out.writeInt( index );
+				return;
+			}
+			out.writeInt( -1 );
+			out.writeUTF( value );
+			strings.put( value, strings.size() );
+		}
+	}
+
+	private static final class Reader {
+
+		private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+		static {
+			for ( Class<?> p : new Class<?>[] { boolean.class, byte.class, short.class, char.class,
+				int.class, long.class, float.class, double.class, void.class } ) {
+				PRIMITIVES.put( p.getName(), p );
+			}
+		}
+
+		private final DataInputStream in;
+		private final ClassLoader loader;
+		private final List<String> strings = new ArrayList<>();
+		private final List<Supplier<?>> suppliers = new ArrayList<>();
+		private final Map<String, Class<?>> classes = new HashMap<>();
+
+		Reader( DataInputStream in, ClassLoader loader ) {
+			this.in = in;
+			this.loader = loader;
+		}
+
+		@SuppressWarnings ( { "unchecked", "rawtypes" } )
+		Binding<?> binding() throws IOException, ReflectiveOperationException {
+			Resource resource = resource();
+			BindingType type = BindingType.valueOf( string() );
+			Supplier<?> supplier = supplier();
+			Scope scope = (Scope) value();
+			Class<?> ident = type( string() );
+			Source source = Source.source( ident, DeclarationType.valueOf( string() ), in.readInt() );
+			return Binding.binding( resource, type, supplier, scope, source );
+		}
+
+		private Resource<?> resource() throws IOException, ReflectiveOperationException {
+			Instance<?> instance = instance();
+			Instance<?> targetInstance = instance();
+			boolean includingSubpackages = Boolean.parseBoolean( string() );
+			String[] roots = new String[in.readShort()];
+			for ( int i = 0; i < roots.length; i++ ) {
+				roots[i] = string();
+			}
+			Instance<?>[] parents = new Instance<?>[in.readShort()];
+			for ( int i = 0; i < parents.length; i++ ) {
+				parents[i] = instance();
+			}
+			Target target = Target.targeting( targetInstance ).in( Packages.packages( roots, includingSubpackages ) );
+			for ( int i = parents.length - 1; i >= 0; i-- ) {
+				target = target.within( parents[i] );
+			}
+			return new Resource<>( instance, target );
+		}
+
+		private Instance<?> instance() throws IOException, ReflectiveOperationException {
+			Name name = Name.named( string() );
+			return Instance.instance( name, type() );
+		}
+
+		private Type<?> type() throws IOException, ReflectiveOperationException {
+			boolean upperBound = in.readBoolean();
+			Type<?> type = Type.raw( type( string() ) );
+			int dimensions = in.readByte();
+			Type<?>[] params = new Type<?>[in.readByte()];
+			for ( int i = 0; i < params.length; i++ ) {
+				params[i] = type();
+			}
+			if ( params.length > 0 ) {
+				type = type.parametized( params );
+			}
+			for ( int i = 0; i < dimensions; i++ ) {
+				type = type.addArrayDimension();
+			}
+			return type.upperBound( upperBound );
+		}
+
+		private Class<?> type( String name ) throws ClassNotFoundException {
+			Class<?> type = classes.get( name );
+			if ( type == null ) {
+				type = PRIMITIVES.get( name );
+				if ( type == null ) {
+					type = Class.forName( name, false, loader );
+				}
+				classes.put( name, type );
+			}
+			return type;
+		}
+
+		@SuppressWarnings ( { "unchecked", "rawtypes" } )
+		private Supplier<?> supplier() throws IOException, ReflectiveOperationException {
+			byte tag = in.readByte();
+			Supplier<?> supplier;
+			switch ( tag ) {
+			case S_SHARED:
+				return suppliers.get( in.readInt() );
+			case S_CONSTANT:
+				supplier = new Supply.ConstantSupplier<>( value() );
+				break;
+			case S_INSTANCE:
+				supplier = new Supply.InstanceSupplier<>( instance() );
+				break;
+			case S_PARAMETRIZED:
+				supplier = new Supply.ParametrizedInstanceSupplier<>( instance() );
+				break;
+			case S_DEPENDENCY:
+				supplier = new Supply.DependencySupplier<>( Dependency.dependency( instance() ) );
+				break;
+			case S_REFERENCE:
+				supplier = new Supply.BridgeSupplier( type( string() ) );
+				break;
+			case S_ELEMENTS:
+				supplier = new Supply.PredefinedArraySupplier( type(), parameters() );
+				break;
+			case S_CONSTRUCTOR: {
+				Invoker invoker = (Invoker) value();
+				Constructor<?> c = type( string() ).getDeclaredConstructor( types() );
+				supplier = new Supply.ConstructorSupplier( Metaclass.accessible( c ), parameters(), invoker );
+				break;
+			}
+			case S_METHOD: {
+				Invoker invoker = (Invoker) value();
+				Class<?> owner = type( string() );
+				Method m = owner.getDeclaredMethod( string(), types() );
+				BoundMethod<?> method = BoundMethod.bind( null, m, type() );
+				supplier = new Supply.MethodSupplier( method, parameters(), invoker );
+				break;
+			}
+			case S_FACTORY:
+				supplier = Supply.factory( (Factory<?>) value() );
+				break;
+			case S_VALUE:
+				supplier = (Supplier<?>) value();
+				break;
+			default:
+				throw new StreamCorruptedException( "Unknown supplier: " + tag );
+			}
+			suppliers.add( supplier );
+			return supplier;
+		}
+
+		private BoundParameter<?>[] parameters() throws IOException, ReflectiveOperationException {
+			BoundParameter<?>[] params = new BoundParameter<?>[in.readShort()];
+			for ( int i = 0; i < params.length; i++ ) {
+				params[i] = parameter();
+			}
+			return params;
+		}
+
+		@SuppressWarnings ( { "unchecked", "rawtypes" } )
+		private BoundParameter<?> parameter() throws IOException, ReflectiveOperationException {
+			ParameterType type = ParameterType.valueOf( string() );
+			Type asType = type();
+			Instance<?> instance = in.readBoolean() ? instance() : null;
+			Object value = value();
+			return new BoundParameter( type, asType, instance, value, supplier() );
+		}
+
+		private Class<?>[] types() throws IOException, ReflectiveOperationException {
+			Class<?>[] types = new Class<?>[in.readShort()];
+			for ( int i = 0; i < types.length; i++ ) {
+				types[i] = type( string() );
+			}
+			return types;
+		}
+
+		@SuppressWarnings ( { "unchecked", "rawtypes" } )
+		private Object value() throws IOException, ReflectiveOperationException {
+			byte tag = in.readByte();
+			switch ( tag ) {
+			case V_NULL: return null;
+			case V_STRING: return in.readUTF();
+			case V_BOOLEAN: return in.readBoolean();
+			case V_BYTE: return in.readByte();
+			case V_SHORT: return in.readShort();
+			case V_CHAR: return in.readChar();
+			case V_INT: return in.readInt();
+			case V_LONG: return in.readLong();
+			case V_FLOAT: return in.readFloat();
+			case V_DOUBLE: return in.readDouble();
+			case V_ENUM: return Enum.valueOf( (Class) type( string() ), string() );
+			case V_CLASS: return type( string() );
+			case V_STATIC:
+				return Metaclass.accessible( type( string() ).getDeclaredField( string() ) ).get( null );
+			case V_STATELESS: {
+				Class<?> type = type( string() );
+				if ( !isStatelessType( type ) ) {
+					throw new InvalidClassException( type.getName(), "Not a stateless value type" );
+				}
+				return Metaclass.accessible( type.getDeclaredConstructor() ).newInstance();
+			}
+			default:
+				throw new StreamCorruptedException( "Unknown value: " + tag );
+			}
+		}
+
+		private String string() throws IOException {
+			int index = in.readInt();
+			if ( index >= 0 ) {
+				return strings.get( index );
+			}
+			String value = in.readUTF();
+			strings.add( value );
+			return value;
+		}
+	}
+}
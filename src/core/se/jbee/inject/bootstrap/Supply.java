@@ -14,7 +14,9 @@ import java.lang.reflect.Constructor;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import se.jbee.inject.Array;
@@ -27,6 +29,8 @@ import se.jbee.inject.Supplier;
 import se.jbee.inject.Type;
 import se.jbee.inject.UnresolvableDependency;
 import se.jbee.inject.UnresolvableDependency.NoResourceForDependency;
+import se.jbee.inject.bootstrap.Invoker.Invocation;
+import se.jbee.inject.container.Compilable;
 import se.jbee.inject.container.Factory;
 import se.jbee.inject.container.Provider;
 
@@ -43,6 +47,7 @@ public final class Supply {
 	public static final Factory<Logger> LOGGER = new LoggerFactory();
 
 	private static final Supplier<?> REQUIRED = new RequiredSupplier<>();
+	private static final Dependency<?>[] NO_DEPENDENCIES = new Dependency<?>[0];
 
 	/**
 	 * A {@link Supplier} used as fall-back. Should a required resource not be
@@ -79,13 +84,21 @@ public final class Supply {
 	}
 
 	public static <T> Supplier<T> method( BoundMethod<T> method ) {
+		return method( method, Invoke.DEFAULT );
+	}
+
+	public static <T> Supplier<T> method( BoundMethod<T> method, Invoker invoker ) {
 		return new MethodSupplier<>(method, 
-				bind( parameterTypes(method.factory), method.parameters ));
+				bind( parameterTypes(method.factory), method.parameters ), invoker);
 	}
 
 	public static <T> Supplier<T> costructor( BoundConstructor<T> constructor ) {
+		return costructor( constructor, Invoke.DEFAULT );
+	}
+
+	public static <T> Supplier<T> costructor( BoundConstructor<T> constructor, Invoker invoker ) {
 		return new ConstructorSupplier<>( constructor.constructor, 
-				bind( parameterTypes(constructor.constructor), constructor.parameters));
+				bind( parameterTypes(constructor.constructor), constructor.parameters), invoker);
 	}
 
 	public static <T> Supplier<T> factory( Factory<T> factory ) {
@@ -128,6 +141,9 @@ public final class Supply {
 	 * Basically we just resolve the array of the element type (generic of the list). Arrays itself
 	 * have build in support that will (if not redefined by a more precise binding) return all known
 	 * 
+	 * The {@link List} is unmodifiable as it is shared by all injections of the same dependency
+	 * (see {@link se.jbee.inject.container.Scoped#DEPENDENCY}).
+	 * 
 	 * @author Jan Bernitt (jan@jbee.se)
 	 * 
 	 */
@@ -159,10 +175,10 @@ public final class Supply {
 
 	}
 
-	private static final class DependencySupplier<T>
+	static final class DependencySupplier<T>
 			implements Supplier<T> {
 
-		private final Dependency<T> dependency;
+		final Dependency<T> dependency;
 
 		DependencySupplier( Dependency<T> dependency ) {
 			super();
@@ -180,10 +196,10 @@ public final class Supply {
 		}
 	}
 
-	private static final class ConstantSupplier<T>
+	static final class ConstantSupplier<T>
 			implements Supplier<T> {
 
-		private final T constant;
+		final T constant;
 
 		ConstantSupplier( T constant ) {
 			super();
@@ -208,9 +224,9 @@ public final class Supply {
 	 * 
 	 * @author Jan Bernitt (jan@jbee.se)
 	 */
-	private static final class PredefinedArraySupplier<E> extends WithParameters<E[]> {
+	static final class PredefinedArraySupplier<E> extends WithParameters<E[]> {
 
-		private final Type<E[]> arrayType;
+		final Type<E[]> arrayType;
 		private final E[] res;
 
 		@SuppressWarnings ( "unchecked" )
@@ -235,10 +251,10 @@ public final class Supply {
 		}
 	}
 
-	private static final class BridgeSupplier<T>
+	static final class BridgeSupplier<T>
 			implements Supplier<T> {
 
-		private final Class<? extends Supplier<? extends T>> type;
+		final Class<? extends Supplier<? extends T>> type;
 
 		BridgeSupplier( Class<? extends Supplier<? extends T>> type ) {
 			super();
@@ -255,10 +271,10 @@ public final class Supply {
 	/**
 	 * E.g. used to "forward" Collection<T> to List<T>.
 	 */
-	private static final class ParametrizedInstanceSupplier<T>
+	static final class ParametrizedInstanceSupplier<T>
 			implements Supplier<T> {
 
-		private final Instance<? extends T> instance;
+		final Instance<? extends T> instance;
 
 		ParametrizedInstanceSupplier( Instance<? extends T> instance ) {
 			super();
@@ -280,10 +296,10 @@ public final class Supply {
 
 	}
 	
-	private static final class InstanceSupplier<T>
+	static final class InstanceSupplier<T>
 			implements Supplier<T> {
 
-		private final Instance<? extends T> instance;
+		final Instance<? extends T> instance;
 
 		InstanceSupplier( Instance<? extends T> instance ) {
 			super();
@@ -322,7 +338,7 @@ public final class Supply {
 	
 	private static final class LazyDirectProvider<T> implements Provider<T> {
 		
-		private final Dependency<T> dependency;
+		final Dependency<T> dependency;
 		private final Injector injector;
 
 		LazyDirectProvider(Dependency<T> dependency, Injector injector) {
@@ -339,7 +355,7 @@ public final class Supply {
 
 	private static final class LazyProvider<T> implements Provider<T> {
 
-		private final Dependency<T> dependency;
+		final Dependency<T> dependency;
 		private final Injectron<? extends T> injectron;
 		
 		@SuppressWarnings("unchecked")
@@ -364,10 +380,10 @@ public final class Supply {
 	 * Adapter to a simpler API that will not need any {@link Injector} to supply it's value in any
 	 * case.
 	 */
-	private static final class FactorySupplier<T>
+	static final class FactorySupplier<T>
 			implements Supplier<T> {
 
-		private final Factory<T> factory;
+		final Factory<T> factory;
 
 		FactorySupplier( Factory<T> factory ) {
 			super();
@@ -386,13 +402,17 @@ public final class Supply {
 
 	}
 	
-	private static final class ConstructorSupplier<T> extends WithParameters<T> {
+	static final class ConstructorSupplier<T> extends WithParameters<T> {
 
-		private final Constructor<T> constructor;
+		final Constructor<T> constructor;
+		final Invoker invoker;
+		private final Invocation<T> invocation;
 
-		ConstructorSupplier( Constructor<T> constructor, BoundParameter<?>[] params) {
+		ConstructorSupplier( Constructor<T> constructor, BoundParameter<?>[] params, Invoker invoker) {
 			super(params);
 			this.constructor = constructor;
+			this.invoker = invoker;
+			this.invocation = invoker.constructor(constructor);
 		}
 
 		@Override
@@ -400,7 +420,7 @@ public final class Supply {
 
 		@Override
 		protected T invoke(Object[] args) {
-			return Invoke.constructor(constructor, args);
+			return invocation.invoke(null, args);
 		}
 
 		@Override
@@ -409,17 +429,21 @@ public final class Supply {
 		}
 	}
 
-	private static final class MethodSupplier<T> extends WithParameters<T> {
+	static final class MethodSupplier<T> extends WithParameters<T> {
 
-		private final BoundMethod<T> method;
+		final BoundMethod<T> method;
 		private Object owner;
 		private final Class<T> returnType;
+		final Invoker invoker;
+		private final Invocation<?> invocation;
 	
-		MethodSupplier( BoundMethod<T> method, BoundParameter<?>[] parameters ) {
+		MethodSupplier( BoundMethod<T> method, BoundParameter<?>[] parameters, Invoker invoker ) {
 			super(parameters);
 			this.method = method;
 			this.returnType = method.returnType.rawType;
 			this.owner = method.instance;
+			this.invoker = invoker;
+			this.invocation = invoker.method(method.factory);
 		}
 
 		@Override
@@ -431,7 +455,18 @@ public final class Supply {
 		
 		@Override
 		protected T invoke(Object[] args) {
-			return returnType.cast(Invoke.method( method.factory, owner, args ));
+			return returnType.cast(invocation.invoke( owner, args ));
+		}
+
+		@Override
+		public Dependency<?>[] dependencies(Dependency<?> site, Injector injector) throws UnresolvableDependency {
+			Dependency<?>[] res = super.dependencies(site, injector);
+			if ( !method.isInstanceMethod || owner != null ) {
+				return res;
+			}
+			res = Arrays.copyOf( res, res.length + 1 );
+			res[res.length - 1] = Dependency.dependency( method.factory.getDeclaringClass() );
+			return res;
 		}
 
 		@Override
@@ -489,9 +524,21 @@ public final class Supply {
 		return describe( behaviour, Arrays.toString( variants ) );
 	}
 	
-	public static abstract class WithParameters<T> implements Supplier<T> {
+	/**
+	 * Base of {@link Supplier}s that invoke something with arguments resolved
+	 * from an {@link InjectionSite}. The {@linkplain InjectionSite} of each
+	 * site is resolved once and reused thereafter. Sites can be
+	 * {@link #compile(Dependency, Injector)}d ahead of time.
+	 */
+	public static abstract class WithParameters<T> implements Supplier<T>, Compilable {
 		
-		private final BoundParameter<?>[] params;
+		/**
+		 * Upper limit of sites remembered per {@link Supplier}.
+		 */
+		private static final int MAX_SITES = 1024;
+
+		final BoundParameter<?>[] params;
+		private final Map<Dependency<?>, InjectionSite> sites = new ConcurrentHashMap<>();
 
 		private InjectionSite previous;
 
@@ -512,11 +559,38 @@ public final class Supply {
 				init(dependency, injector);
 			}
 			if (local == null || !local.site.equalTo(dependency)) {
-				local = new InjectionSite(dependency, injector, params);
+				local = site(dependency, injector);
 				previous = local;
 			}
 			return invoke(local.args(injector));	
 		}
+
+		@Override
+		public Dependency<?>[] compile(Dependency<?> site, Injector injector) throws UnresolvableDependency {
+			if (sites.containsKey(site) || sites.size() >= MAX_SITES) {
+				return NO_DEPENDENCIES;
+			}
+			return site(site, injector).injectronDependencies();
+		}
+
+		@Override
+		public Dependency<?>[] dependencies(Dependency<?> site, Injector injector) throws UnresolvableDependency {
+			return site(site, injector).injectronDependencies();
+		}
+
+		private InjectionSite site(Dependency<?> dependency, Injector injector) {
+			InjectionSite site = sites.get(dependency);
+			if (site == null) {
+				site = new InjectionSite(dependency, injector, params);
+				if (sites.size() < MAX_SITES) {
+					InjectionSite existing = sites.putIfAbsent(dependency, site);
+					if (existing != null) {
+						site = existing;
+					}
+				}
+			}
+			return site;
+		}
 	
 	}
 }
@@ -70,6 +70,11 @@ public final class Globals {
 		return new Globals( edition, options, presets );
 	}
 
+	@Override
+	public String toString() {
+		return ( edition == Edition.FULL ? "full" : edition ) + " " + options + " " + presets;
+	}
+
 	private static class FeatureEdition<T extends Enum<T>>
 			implements Edition {
 
@@ -87,6 +92,11 @@ public final class Globals {
 			T f = feature.featureOf( bundleOrModule );
 			return f == null || featured.contains( f );
 		}
+
+		@Override
+		public String toString() {
+			return featured.toString();
+		}
 	}
 
 	private static class PackagesEdition
@@ -104,5 +114,10 @@ public final class Globals {
 			return included.contains( Type.raw( bundleOrModule ) );
 		}
 
+		@Override
+		public String toString() {
+			return included.toString();
+		}
+
 	}
 }
@@ -7,6 +7,8 @@ package se.jbee.inject.config;
 
 import java.util.EnumSet;
 import java.util.IdentityHashMap;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 
 /**
  * {@link Options} are used to model configurations of the bootstrapping process through one enum
@@ -76,6 +78,11 @@ public final class Options {
 
 	@Override
 	public String toString() {
-		return properties.toString();
+		// sorted by name so that equal options have equal strings across runs
+		TreeMap<String, EnumSet<?>> sorted = new TreeMap<>();
+		for ( Entry<Class<? extends Enum<?>>, EnumSet<?>> e : properties.entrySet() ) {
+			sorted.put( e.getKey().getName(), e.getValue() );
+		}
+		return sorted.toString();
 	}
 }
@@ -6,6 +6,7 @@
 package se.jbee.inject.config;
 
 import java.util.IdentityHashMap;
+import java.util.TreeMap;
 
 import se.jbee.inject.Type;
 
@@ -69,6 +70,7 @@ public final class Presets {
 
 	@Override
 	public String toString() {
-		return values.toString();
+		// sorted so that equal presets have equal strings across runs
+		return new TreeMap<>( values ).toString();
 	}
 }
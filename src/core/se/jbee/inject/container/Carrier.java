@@ -0,0 +1,107 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import se.jbee.inject.Injector;
+
+/**
+ * The context of a task that carries the instances of the
+ * {@link Scoped#CARRIER} {@link Scope}.
+ * 
+ * A {@linkplain Carrier} is bound to the current thread for the extent of
+ * {@link #run(Runnable)} or {@link #call(Callable)} only. Work forked inside
+ * the task shares the {@linkplain Carrier} by being wrapped with
+ * {@link #bind(Runnable)} or {@link #bind(Callable)} so that all threads
+ * working on the task see the same instances. Outside of these no instances
+ * are kept per thread.
+ * 
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class Carrier {
+
+	private static final ThreadLocal<Carrier> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * @return a new {@link Carrier} without any instances
+	 */
+	public static Carrier carrier() {
+		return new Carrier();
+	}
+
+	/**
+	 * @return the {@link Carrier} bound to the current thread or
+	 *         <code>null</code> if there is none
+	 */
+	public static Carrier current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * One {@link Repository} for each {@link Injector} (identified by its
+	 * {@link Repository} of the {@link Scoped#CARRIER} {@link Scope}).
+	 */
+	private final Map<Repository, Repository> repositories = new ConcurrentHashMap<>();
+
+	private Carrier() {
+		// use carrier()
+	}
+
+	public void run( Runnable task ) {
+		Carrier outer = enter();
+		try {
+			task.run();
+		} finally {
+			exit( outer );
+		}
+	}
+
+	public <T> T call( Callable<T> task ) throws Exception {
+		Carrier outer = enter();
+		try {
+			return task.call();
+		} finally {
+			exit( outer );
+		}
+	}
+
+	/**
+	 * @return the given task so that it runs within this {@link Carrier}
+	 *         (usually in another thread)
+	 */
+	public Runnable bind( Runnable task ) {
+		return () -> run( task );
+	}
+
+	/**
+	 * @return the given task so that it is called within this
+	 *         {@link Carrier} (usually in another thread)
+	 */
+	public <T> Callable<T> bind( Callable<T> task ) {
+		return () -> call( task );
+	}
+
+	Repository repository( Repository scopeRepository ) {
+		return repositories.computeIfAbsent( scopeRepository, key -> Scoped.APPLICATION.init() );
+	}
+
+	private Carrier enter() {
+		Carrier outer = CURRENT.get();
+		CURRENT.set( this );
+		return outer;
+	}
+
+	private static void exit( Carrier outer ) {
+		if ( outer == null ) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set( outer );
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.Supplier;
+import se.jbee.inject.UnresolvableDependency;
+
+/**
+ * A {@link Supplier} that resolves {@link Injectron}s for its own dependencies
+ * (like constructor parameters) can implement {@linkplain Compilable} to do so
+ * ahead of time for a particular site.
+ *
+ * @see Inject#compile(Injector)
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public interface Compilable {
+
+	/**
+	 * Resolves the plan used to supply instances for the given site without
+	 * creating any instances.
+	 *
+	 * @param site
+	 *            the {@link Dependency} as it is passed to
+	 *            {@link Supplier#supply(Dependency, Injector)}
+	 * @return The {@link Dependency}s the plan resolves through
+	 *         {@link Injectron}s (those sites are compiled next) or an empty
+	 *         array in case the site has been compiled before.
+	 */
+	Dependency<?>[] compile( Dependency<?> site, Injector injector ) throws UnresolvableDependency;
+
+	/**
+	 * Like {@link #compile(Dependency, Injector)} but always returns all
+	 * {@link Dependency}s of the plan (compiled before or not).
+	 */
+	Dependency<?>[] dependencies( Dependency<?> site, Injector injector ) throws UnresolvableDependency;
+}
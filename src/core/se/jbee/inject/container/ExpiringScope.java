@@ -0,0 +1,24 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import se.jbee.inject.Expiry;
+import se.jbee.inject.Injector;
+
+/**
+ * A {@link Scope} that knows the {@link Expiry} of the instances it keeps.
+ * 
+ * The {@link Injector} asks the {@link Scope} itself so that scopes created
+ * on demand (like {@link Scoped#pooled(int)}) do not have to be registered
+ * anywhere.
+ * 
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public interface ExpiringScope
+		extends Scope {
+
+	Expiry expiry();
+}
@@ -0,0 +1,316 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.InjectronInfo;
+
+/**
+ * A version of the instances of the {@link Scoped#GENERATION} {@link Scope}
+ * of one {@link Injector}.
+ *
+ * Instances are resolved from the {@link #latest(Injector)} generation
+ * unless the current thread is {@link #read(Injector)}ing a particular
+ * generation. Thereby a reader gets a consistent view of all instances of
+ * the generation it started in while a writer
+ * {@link #publish(Injector, Class...)}es a new generation (for example after
+ * a reload of the configuration).
+ *
+ * A new generation reuses the instances the previous generation has created
+ * except for those of the types that have changed and all those depending on
+ * them (directly or indirectly as far as known ahead of time, see
+ * {@link Inject#dependencies(Injector, Injectron)}). These are created again
+ * when used. A previous generation is never changed by the next one and
+ * instances of the generation before the previous are not reused.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class Generation {
+
+	private static final ThreadLocal<Reading> READING = new ThreadLocal<>();
+
+	/**
+	 * @return the most recently published generation of the given
+	 *         {@link Injector}
+	 */
+	public static Generation latest( Injector injector ) {
+		return history( injector ).latest;
+	}
+
+	/**
+	 * @return the generation of the given {@link Injector} used by the
+	 *         current thread
+	 */
+	public static Generation current( Injector injector ) {
+		return history( injector ).current();
+	}
+
+	/**
+	 * Pins the {@link #latest(Injector)} generation to the current thread
+	 * until the returned {@link Reading} is closed.
+	 *
+	 * @return the handle to end reading (best used with try-with-resources)
+	 */
+	public static Reading read( Injector injector ) {
+		History history = history( injector );
+		Reading reading = new Reading( history, history.latest, READING.get() );
+		READING.set( reading );
+		return reading;
+	}
+
+	/**
+	 * Publishes a new generation that reuses all instances of the previous
+	 * generation except those of the given types and those depending on
+	 * them.
+	 *
+	 * @return the new generation
+	 */
+	public static Generation publish( Injector injector, Class<?>... changed ) {
+		return history( injector ).publish( injector, changed );
+	}
+
+	/**
+	 * Publishes a new generation that does not reuse any instances.
+	 *
+	 * @return the new generation
+	 */
+	public static Generation publishAll( Injector injector ) {
+		return history( injector ).publishAll();
+	}
+
+	private static History history( Injector injector ) {
+		Repository repository = Inject.repository( injector, Scoped.GENERATION );
+		if ( repository == null ) {
+			throw new IllegalArgumentException( "Nothing is bound " + Scoped.GENERATION + " in: " + injector );
+		}
+		return (History) repository;
+	}
+
+	private final long number;
+	/**
+	 * The {@link InjectronInfo#serialID}s of the changed instances or
+	 * <code>null</code> if all have changed.
+	 */
+	private final BitSet changed;
+	private volatile Generation previous;
+	private final Repository repository = Scoped.APPLICATION.init();
+	/**
+	 * The instances created or reused by this generation by
+	 * {@link InjectronInfo#serialID} (created on first use).
+	 */
+	private volatile AtomicReferenceArray<Object> instances;
+
+	private Generation( long number, Generation previous, BitSet changed ) {
+		this.number = number;
+		this.previous = previous;
+		this.changed = changed;
+	}
+
+	public long number() {
+		return number;
+	}
+
+	<T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+		return repository.serve( dependency, info, new Reusing<>( this, info, provider ) );
+	}
+
+	/**
+	 * @return the instance the previous generation has created that can be
+	 *         reused by this generation or <code>null</code> if there is none
+	 */
+	Object reusable( InjectronInfo<?> info ) {
+		Generation prev = previous;
+		if ( prev == null || changed == null || changed.get( info.serialID ) ) {
+			return null;
+		}
+		AtomicReferenceArray<Object> created = prev.instances;
+		return created == null ? null : created.get( info.serialID );
+	}
+
+	void created( InjectronInfo<?> info, Object instance ) {
+		AtomicReferenceArray<Object> created = instances;
+		if ( created == null ) {
+			synchronized ( this ) {
+				created = instances;
+				if ( created == null ) {
+					created = new AtomicReferenceArray<>( info.count );
+					instances = created;
+				}
+			}
+		}
+		created.set( info.serialID, instance );
+	}
+
+	@Override
+	public String toString() {
+		return "generation " + number;
+	}
+
+	/**
+	 * Reuses the instance of the previous {@link Generation} if possible and
+	 * asks the actual {@link Provider} otherwise. Either way the instance is
+	 * remembered as one of this {@link Generation}.
+	 */
+	private static final class Reusing<T>
+			implements Provider<T> {
+
+		private final Generation generation;
+		private final InjectronInfo<T> info;
+		private final Provider<T> provider;
+
+		Reusing( Generation generation, InjectronInfo<T> info, Provider<T> provider ) {
+			this.generation = generation;
+			this.info = info;
+			this.provider = provider;
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		@Override
+		public T provide() {
+			T instance = (T) generation.reusable( info );
+			if ( instance == null ) {
+				instance = provider.provide();
+			}
+			generation.created( info, instance );
+			return instance;
+		}
+	}
+
+	/**
+	 * The {@link Repository} of the {@link Scoped#GENERATION} {@link Scope}
+	 * of one {@link Injector} that holds its generations.
+	 */
+	static final class History
+			implements Repository {
+
+		volatile Generation latest = new Generation( 0L, null, null );
+		/**
+		 * The {@link InjectronInfo#serialID}s of the injectrons directly
+		 * depending on the one with the index's serialID (computed on first
+		 * {@link #publish(Injector, Class...)}).
+		 */
+		private int[][] dependents;
+
+		History() {
+			// make visible
+		}
+
+		@Override
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			return current().serve( dependency, info, provider );
+		}
+
+		Generation current() {
+			for ( Reading reading = READING.get(); reading != null; reading = reading.outer ) {
+				if ( reading.history == this ) {
+					return reading.generation;
+				}
+			}
+			return latest;
+		}
+
+		synchronized Generation publish( Injector injector, Class<?>... changed ) {
+			Injectron<?>[] injectrons = injector.resolve( dependency( Injectron[].class ) );
+			if ( dependents == null ) {
+				dependents = dependents( injector, injectrons );
+			}
+			BitSet invalid = new BitSet( dependents.length );
+			Deque<Integer> todo = new ArrayDeque<>();
+			for ( Injectron<?> i : injectrons ) {
+				Class<?> type = i.info().resource.type().rawType;
+				for ( Class<?> c : changed ) {
+					if ( c == type ) {
+						todo.add( i.info().serialID );
+					}
+				}
+			}
+			while ( !todo.isEmpty() ) {
+				int serialID = todo.poll();
+				if ( !invalid.get( serialID ) ) {
+					invalid.set( serialID );
+					for ( int dependent : dependents[serialID] ) {
+						todo.add( dependent );
+					}
+				}
+			}
+			Generation previous = latest;
+			Generation next = new Generation( previous.number + 1L, previous, invalid );
+			previous.previous = null;
+			latest = next;
+			return next;
+		}
+
+		synchronized Generation publishAll() {
+			Generation next = new Generation( latest.number + 1L, null, null );
+			latest = next;
+			return next;
+		}
+
+		private static int[][] dependents( Injector injector, Injectron<?>[] injectrons ) {
+			int count = injectrons.length == 0 ? 0 : injectrons[0].info().count;
+			List<List<Integer>> edges = new ArrayList<>( count );
+			for ( int i = 0; i < count; i++ ) {
+				edges.add( new ArrayList<>( 2 ) );
+			}
+			for ( Injectron<?> i : injectrons ) {
+				for ( Injectron<?> dep : Inject.dependencies( injector, i ) ) {
+					edges.get( dep.info().serialID ).add( i.info().serialID );
+				}
+			}
+			int[][] res = new int[count][];
+			for ( int i = 0; i < count; i++ ) {
+				List<Integer> e = edges.get( i );
+				res[i] = new int[e.size()];
+				for ( int j = 0; j < res[i].length; j++ ) {
+					res[i][j] = e.get( j );
+				}
+			}
+			return res;
+		}
+	}
+
+	/**
+	 * A thread reading a particular {@link Generation}.
+	 */
+	public static final class Reading implements AutoCloseable {
+
+		final History history;
+		final Generation generation;
+		final Reading outer;
+
+		Reading( History history, Generation generation, Reading outer ) {
+			this.history = history;
+			this.generation = generation;
+			this.outer = outer;
+		}
+
+		public Generation generation() {
+			return generation;
+		}
+
+		@Override
+		public void close() {
+			if ( READING.get() == this ) {
+				if ( outer == null ) {
+					READING.remove();
+				} else {
+					READING.set( outer );
+				}
+			}
+		}
+	}
+}
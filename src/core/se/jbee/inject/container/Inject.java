@@ -7,14 +7,19 @@ package se.jbee.inject.container;
 
 import static se.jbee.inject.Type.raw;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import se.jbee.inject.Array;
 import se.jbee.inject.Dependency;
@@ -26,6 +31,7 @@ import se.jbee.inject.Instance;
 import se.jbee.inject.Resource;
 import se.jbee.inject.Supplier;
 import se.jbee.inject.Type;
+import se.jbee.inject.UnresolvableDependency;
 import se.jbee.inject.UnresolvableDependency.NoResourceForDependency;
 
 /**
@@ -38,6 +44,65 @@ public final class Inject {
 	public static Injector container( Assembly<?>... assemblies ) {
 		return new DefaultInjector( assemblies );
 	}
+
+	/**
+	 * @return the counters of the resolution cache of the given
+	 *         {@link Injector}
+	 * @throws IllegalArgumentException
+	 *             in case the {@link Injector} has not been created by
+	 *             {@link #container(Assembly...)}
+	 */
+	public static ResolutionStats resolutionStats( Injector injector ) {
+		return container( injector ).resolutionStats();
+	}
+
+	/**
+	 * Resolves the plans of all {@link Compilable} {@link Supplier}s ahead of
+	 * time. Starting from each bound {@link Resource} (resolved by its own or
+	 * any {@link Instance} of its {@link Type}) all sites reachable through
+	 * parameters are compiled. No instances are created. Sites reached
+	 * otherwise are still compiled on first use.
+	 * 
+	 * @return the given {@link Injector} (for chaining)
+	 * @throws IllegalArgumentException
+	 *             in case the {@link Injector} has not been created by
+	 *             {@link #container(Assembly...)}
+	 */
+	public static Injector compile( Injector injector ) {
+		container( injector ).compile();
+		return injector;
+	}
+
+	/**
+	 * @return the {@link Injectron}s the given one directly resolves
+	 *         instances from when creating its instance for its own
+	 *         {@link Resource} (as far as known ahead of time)
+	 * @throws IllegalArgumentException
+	 *             in case the {@link Injector} has not been created by
+	 *             {@link #container(Assembly...)}
+	 */
+	public static Injectron<?>[] dependencies( Injector injector, Injectron<?> injectron ) {
+		return container( injector ).dependencies( injectron );
+	}
+
+	/**
+	 * @return the {@link Repository} the given {@link Injector} uses for the
+	 *         given {@link Scope} or <code>null</code> if nothing is bound in
+	 *         that {@link Scope}
+	 * @throws IllegalArgumentException
+	 *             in case the {@link Injector} has not been created by
+	 *             {@link #container(Assembly...)}
+	 */
+	static Repository repository( Injector injector, Scope scope ) {
+		return container( injector ).repositories.get( scope );
+	}
+
+	private static DefaultInjector container( Injector injector ) {
+		if ( !( injector instanceof DefaultInjector ) ) {
+			throw new IllegalArgumentException( "Not a container created by "+Inject.class.getSimpleName()+": " + injector );
+		}
+		return (DefaultInjector) injector;
+	}
 	
 	private Inject() {
 		throw new UnsupportedOperationException( "util" );
@@ -48,35 +113,87 @@ public final class Inject {
 	 * 
 	 * For each raw type ({@link Class}) all production rules ({@link Injectron}
 	 * s) are given ordered from most precise to least precise. The first in
-	 * order that matches yields the result instance.
+	 * order that matches yields the result instance. These are looked up
+	 * through an {@link InjectronTable}.
+	 * 
+	 * As the result of this search only depends on the structure of the
+	 * {@link Dependency} (type, name and injection hierarchy) the matching
+	 * {@link Injectron} is remembered for each {@link Dependency} so that
+	 * repeated resolution skips the search.
+	 * 
+	 * Queries for all sub-types of a type (wild-card arrays and wild-card
+	 * bindings) use a super-type index computed once when the container is
+	 * created instead of testing all bound types.
+	 * 
+	 * Arrays of elements that never expire can never change, these are
+	 * resolved once for each {@link Dependency} and copied from there on.
 	 * 
 	 * @author Jan Bernitt (jan@jbee.se)
 	 */
 	private static final class DefaultInjector implements Injector {
 
 		private final Map<Class<?>, Injectron<?>[]> injectrons;
+		private final InjectronTable table;
 		private final Injectron<?>[] wildcardInjectrons;
+		/**
+		 * All {@link Injectron}s (ordered by raw type) for each raw type any of
+		 * the bound raw types is assignable to.
+		 */
+		private final Map<Class<?>, Injectron<?>[]> assignableInjectrons;
+		/**
+		 * The candidates of {@link #wildcardInjectrons} for a raw type
+		 * (computed on first use as the types asked for are not bound).
+		 */
+		private final Map<Class<?>, Injectron<?>[]> wildcardsBySubtype = new ConcurrentHashMap<>();
+
+		/**
+		 * The {@link Repository} of each {@link Scope} used
+		 */
+		private final Map<Scope, Repository> repositories;
+		private final Map<Dependency<?>, Injectron<?>> matches = new ConcurrentHashMap<>();
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		/**
+		 * The resolved arrays (never handed out) of {@link Dependency}s whose
+		 * elements never expire. Keys are compared
+		 * {@link Dependency#equalToExactly(Dependency)} as upper bounds change
+		 * which elements are included.
+		 */
+		private final Map<Dependency<?>, Object[]> arrays = new ConcurrentHashMap<>();
 
 		DefaultInjector( Assembly<?>... assemblies ) {
 			super();
-			this.injectrons = initFrom( assemblies );
+			this.repositories = initRepositories( assemblies );
+			Injectron<?>[] sorted = initFrom( assemblies );
+			this.injectrons = byRawType( sorted );
+			this.table = new InjectronTable( injectrons );
 			this.wildcardInjectrons = wildcardInjectrons(injectrons);
+			this.assignableInjectrons = assignableInjectrons( sorted );
 		}
 
-		private <T> Map<Class<?>, Injectron<?>[]> initFrom( Assembly<?>... assemblies ) {
-			Map<Scope, Repository> repositories = initRepositories( assemblies );
+		private <T> Injectron<?>[] initFrom( Assembly<?>... assemblies ) {
 			Injectron<?>[] injectrons = new Injectron<?>[assemblies.length];
 			for (int i = 0; i < assemblies.length; i++) {
 				@SuppressWarnings("unchecked")
 				Assembly<T> assembly = (Assembly<T>) assemblies[i];
 				Scope scope = assembly.scope();
-				Expiry expiry = EXPIRATION.get( scope );
+				Expiry expiry = scope instanceof ExpiringScope
+					? ( (ExpiringScope) scope ).expiry()
+					: EXPIRATION.get( scope );
+				boolean constant = expiry == Expiry.NEVER;
 				if ( expiry == null ) {
 					expiry = Expiry.NEVER;
 				}
-				injectrons[i] = new RepositoryInjectron<>(this, repositories.get( scope ), assembly, expiry, i, assemblies.length);
+				Repository repository = repositories.get( scope );
+				injectrons[i] = scope == Scoped.APPLICATION
+					? new ApplicationInjectron<>(this, repository, assembly, expiry, constant, i, assemblies.length)
+					: new RepositoryInjectron<>(this, repository, assembly, expiry, constant, i, assemblies.length);
 			}
-			Arrays.sort( injectrons, COMPARATOR );
+			Arrays.sort( injectrons, new InjectronComparator( new IdentityHashMap<>() ) );
+			return injectrons;
+		}
+
+		private static Map<Class<?>, Injectron<?>[]> byRawType( Injectron<?>[] injectrons ) {
 			Map<Class<?>, Injectron<?>[]> map = new IdentityHashMap<>( injectrons.length );
 			if ( injectrons.length == 0 ) {
 				return map;
@@ -108,6 +225,87 @@ public final class Inject {
 			return res.size() == 0 ? null : res.toArray(new Injectron[res.size()]);
 		}
 		
+		/**
+		 * @param injectrons
+		 *            ordered by {@link #COMPARATOR}; the order is kept for
+		 *            each super-type
+		 */
+		private static Map<Class<?>, Injectron<?>[]> assignableInjectrons( Injectron<?>[] injectrons ) {
+			Map<Class<?>, List<Injectron<?>>> index = new IdentityHashMap<>();
+			Class<?> lastRawType = null;
+			Set<Class<?>> supertypes = null;
+			for ( Injectron<?> i : injectrons ) {
+				Class<?> rawType = i.info().resource.type().rawType;
+				if ( rawType != lastRawType ) {
+					supertypes = new LinkedHashSet<>();
+					addRawSupertypes( rawType, supertypes );
+					lastRawType = rawType;
+				}
+				for ( Class<?> supertype : supertypes ) {
+					List<Injectron<?>> assignable = index.get( supertype );
+					if ( assignable == null ) {
+						assignable = new ArrayList<>();
+						index.put( supertype, assignable );
+					}
+					assignable.add( i );
+				}
+			}
+			Map<Class<?>, Injectron<?>[]> res = new IdentityHashMap<>( index.size() );
+			for ( Entry<Class<?>, List<Injectron<?>>> e : index.entrySet() ) {
+				List<Injectron<?>> assignable = e.getValue();
+				res.put( e.getKey(), assignable.toArray( new Injectron<?>[assignable.size()] ) );
+			}
+			return res;
+		}
+
+		/**
+		 * Adds all raw types <code>type</code> is assignable to (including
+		 * itself) in the sense of {@link Class#isAssignableFrom(Class)}.
+		 */
+		private static void addRawSupertypes( Class<?> type, Set<Class<?>> res ) {
+			if ( !res.add( type ) || type.isPrimitive() ) {
+				return;
+			}
+			if ( type.isArray() ) {
+				Class<?> componentType = type.getComponentType();
+				if ( !componentType.isPrimitive() ) {
+					Set<Class<?>> componentSupertypes = new LinkedHashSet<>();
+					addRawSupertypes( componentType, componentSupertypes );
+					for ( Class<?> s : componentSupertypes ) {
+						res.add( Array.newInstance( s, 0 ).getClass() );
+					}
+				}
+				res.add( Object.class );
+				res.add( Cloneable.class );
+				res.add( Serializable.class );
+				return;
+			}
+			if ( type.isInterface() ) {
+				res.add( Object.class );
+			} else if ( type.getSuperclass() != null ) {
+				addRawSupertypes( type.getSuperclass(), res );
+			}
+			for ( Class<?> i : type.getInterfaces() ) {
+				addRawSupertypes( i, res );
+			}
+		}
+
+		private Injectron<?>[] wildcardsFor( Class<?> rawType ) {
+			Injectron<?>[] res = wildcardsBySubtype.get( rawType );
+			if ( res != null ) {
+				return res;
+			}
+			List<Injectron<?>> candidates = new ArrayList<>();
+			for ( Injectron<?> i : wildcardInjectrons ) {
+				if ( i.info().resource.type().rawType.isAssignableFrom( rawType ) ) {
+					candidates.add( i );
+				}
+			}
+			res = candidates.toArray( new Injectron<?>[candidates.size()] );
+			wildcardsBySubtype.put( rawType, res );
+			return res;
+		}
+
 		private static Map<Scope, Repository> initRepositories( Assembly<?>[] assemblies ) {
 			Map<Scope, Repository> repositories = new IdentityHashMap<>();
 			for ( Assembly<?> a : assemblies ) {
@@ -152,8 +350,9 @@ public final class Inject {
 		private <T> T resolveFromUpperBound(Dependency<T> dependency) {
 			final Type<T> type = dependency.type();
 			if ( wildcardInjectrons != null ) {
-				for (int i = 0; i < wildcardInjectrons.length; i++) {
-					Injectron<?> res = wildcardInjectrons[i];
+				Injectron<?>[] candidates = wildcardsFor( type.rawType );
+				for (int i = 0; i < candidates.length; i++) {
+					Injectron<?> res = candidates[i];
 					if (type.isAssignableTo(res.info().resource.type())) {
 						return (T) res.instanceFor((Dependency<Object>) dependency);
 					}
@@ -162,8 +361,83 @@ public final class Inject {
 			throw noInjectronFor( dependency );
 		}
 
+		@SuppressWarnings ( "unchecked" )
 		private <T> Injectron<T> injectronMatching( Dependency<T> dependency ) {
-			return mostPreciseOf( injectronsForType( dependency.type() ), dependency );
+			Injectron<T> res = (Injectron<T>) matches.get( dependency );
+			if ( res != null ) {
+				hits.increment();
+				return res;
+			}
+			misses.increment();
+			res = mostPreciseOf( injectronsForType( dependency.type() ), dependency );
+			if ( res != null && matches.size() < MAX_CACHED_MATCHES ) {
+				matches.put( dependency, res );
+			}
+			return res;
+		}
+
+		void compile() {
+			for ( Injectron<?>[] is : injectrons.values() ) {
+				for ( Injectron<?> i : is ) {
+					Resource<?> resource = i.info().resource;
+					if ( !resource.type().isUpperBound() ) {
+						Instance<?> any = Instance.anyOf( resource.type() );
+						compile( i, Dependency.dependency( resource.instance ) );
+						if ( !any.equalTo( resource.instance ) ) {
+							compile( i, Dependency.dependency( any ) );
+						}
+					}
+				}
+			}
+		}
+
+		private void compile( Injectron<?> injectron, Dependency<?> dependency ) {
+			if ( !( injectron instanceof RepositoryInjectron ) ) {
+				return;
+			}
+			RepositoryInjectron<?> i = (RepositoryInjectron<?>) injectron;
+			if ( !( i.supplier instanceof Compilable ) ) {
+				return;
+			}
+			Dependency<?>[] next;
+			try {
+				Dependency<?> site = dependency.injectingInto( i.info.resource, i.info.expiry );
+				next = ( (Compilable) i.supplier ).compile( site, this );
+			} catch ( UnresolvableDependency e ) {
+				return; // the problem is reported should the site be resolved
+			}
+			for ( Dependency<?> d : next ) {
+				compile( injectronMatching( d ), d );
+			}
+		}
+
+		Injectron<?>[] dependencies( Injectron<?> injectron ) {
+			if ( !( injectron instanceof RepositoryInjectron ) ) {
+				return NO_INJECTRONS;
+			}
+			RepositoryInjectron<?> i = (RepositoryInjectron<?>) injectron;
+			if ( !( i.supplier instanceof Compilable ) ) {
+				return NO_INJECTRONS;
+			}
+			Dependency<?>[] ds;
+			try {
+				Dependency<?> site = Dependency.dependency( i.info.resource.instance ).injectingInto( i.info.resource, i.info.expiry );
+				ds = ( (Compilable) i.supplier ).dependencies( site, this );
+			} catch ( UnresolvableDependency e ) {
+				return NO_INJECTRONS; // the problem is reported should the site be resolved
+			}
+			List<Injectron<?>> res = new ArrayList<>( ds.length );
+			for ( Dependency<?> d : ds ) {
+				Injectron<?> match = injectronMatching( d );
+				if ( match != null ) {
+					res.add( match );
+				}
+			}
+			return res.toArray( NO_INJECTRONS );
+		}
+
+		ResolutionStats resolutionStats() {
+			return new ResolutionStats( hits.sum(), misses.sum(), matches.size() );
 		}
 
 		private static <T> Injectron<T> mostPreciseOf( Injectron<T>[] injectrons, Dependency<T> dependency ) {
@@ -183,53 +457,59 @@ public final class Inject {
 			return new NoResourceForDependency( dependency, injectronsForType( dependency.type() ), "" );
 		}
 
+		@SuppressWarnings ( "unchecked" )
 		private <T, E> T resolveArray( Dependency<T> dependency, Type<E> elementType ) {
+			Object[] res = arrays.get( dependency );
+			if ( res != null ) {
+				return (T) res.clone();
+			}
 			if ( elementType.rawType == Injectron.class ) {
 				return resolveInjectronArray( dependency, elementType.parameter( 0 ) );
 			}
 			Injectron<E>[] elementInjectrons = injectronsForType( elementType );
 			if ( elementInjectrons != null ) {
-				List<E> elements = new ArrayList<>( elementInjectrons.length );
-				addAllMatching( elements, dependency, elementType, elementInjectrons );
 				if ( dependency.type().rawType.getComponentType().isPrimitive() ) {
 					throw new NoResourceForDependency(dependency, null,
 							"Primitive arrays cannot be used to inject all instances of the wrapper type. Use the wrapper array instead." );
 				}
-				return toArray( elements, elementType );
+				List<E> elements = new ArrayList<>( elementInjectrons.length );
+				boolean constant = addAllMatching( elements, dependency, elementType, elementInjectrons );
+				return remember( dependency, toArray( elements, elementType ), constant );
 			}
 			// if there hasn't been binds to that specific wild-card Type  
 			if ( elementType.isUpperBound() ) { // wild-card dependency:
 				List<E> elements = new ArrayList<>();
-				for ( Entry<Class<?>, Injectron<?>[]> e : injectrons.entrySet() ) {
-					if ( Type.raw( e.getKey() ).isAssignableTo( elementType ) ) {
-						@SuppressWarnings ( "unchecked" )
-						Injectron<? extends E>[] value = (Injectron<? extends E>[]) e.getValue();
-						addAllMatching( elements, dependency, elementType, value );
-					}
-				}
-				return toArray( elements, elementType );
+				Injectron<? extends E>[] assignable = assignableTo( elementType );
+				boolean constant = assignable == null
+					|| addAllMatching( elements, dependency, elementType, assignable );
+				return remember( dependency, toArray( elements, elementType ), constant );
+			}
+			return remember( dependency, (T) Array.newInstance( elementType.rawType, 0 ), true );
+		}
+
+		/**
+		 * @return the given array as is (the copy is remembered)
+		 */
+		private <T> T remember( Dependency<T> dependency, T array, boolean constant ) {
+			if ( constant && arrays.size() < MAX_CACHED_MATCHES ) {
+				arrays.put( dependency, ( (Object[]) array ).clone() );
 			}
-			@SuppressWarnings("unchecked")
-			T empty = (T) Array.newInstance(elementType.rawType, 0);
-			return empty;
+			return array;
 		}
 
 		private <T, I> T resolveInjectronArray( Dependency<T> dependency, Type<I> instanceType ) {
 			Dependency<I> instanceDependency = dependency.typed( instanceType );
 			if ( instanceType.isUpperBound() ) {
 				List<Injectron<?>> res = new ArrayList<>();
-				for ( Entry<Class<?>, Injectron<?>[]> e : injectrons.entrySet() ) {
-					if ( raw( e.getKey() ).isAssignableTo( instanceType ) ) {
-						@SuppressWarnings ( "unchecked" )
-						Injectron<? extends I>[] typeInjectrons = (Injectron<? extends I>[]) e.getValue();
-						for ( Injectron<? extends I> i : typeInjectrons ) {
-							if ( i.info().resource.isCompatibleWith( instanceDependency ) ) {
-								res.add( i );
-							}
+				Injectron<? extends I>[] assignable = assignableTo( instanceType );
+				if ( assignable != null ) {
+					for ( Injectron<? extends I> i : assignable ) {
+						if ( i.info().resource.isCompatibleWith( instanceDependency ) ) {
+							res.add( i );
 						}
 					}
 				}
-				return toArray( res, raw( Injectron.class ) );
+				return remember( dependency, toArray( res, raw( Injectron.class ) ), true );
 			}
 			Injectron<I>[] res = injectronsForType( instanceType );
 			List<Injectron<I>> elements = new ArrayList<>( res.length );
@@ -238,18 +518,25 @@ public final class Inject {
 					elements.add( i );
 				}
 			}
-			return toArray( elements, raw( Injectron.class ) );
+			return remember( dependency, toArray( elements, raw( Injectron.class ) ), true );
 		}
 
-		private static <E, T> void addAllMatching( List<E> elements, Dependency<T> dependency,
+		/**
+		 * @return true, if all elements added never expire
+		 */
+		private static <E, T> boolean addAllMatching( List<E> elements, Dependency<T> dependency,
 				Type<E> elementType, Injectron<? extends E>[] elementInjectrons ) {
 			Dependency<E> elementDependency = dependency.typed( elementType );
+			boolean constant = true;
 			for ( int i = 0; i < elementInjectrons.length; i++ ) {
 				Injectron<? extends E> injectron = elementInjectrons[i];
 				if ( injectron.info().resource.isMatching( elementDependency ) ) {
 					elements.add( injectron.instanceFor( elementDependency ) );
+					constant &= injectron instanceof RepositoryInjectron
+							&& ( (RepositoryInjectron<?>) injectron ).constant;
 				}
 			}
+			return constant;
 		}
 
 		@SuppressWarnings ( "unchecked" )
@@ -257,9 +544,20 @@ public final class Inject {
 			return (T) Array.of( elements, elementType.rawType );
 		}
 
+		/**
+		 * @return all {@link Injectron}s whose raw type is assignable to the
+		 *         given raw type (this is the same as the raw type of any
+		 *         binding being assignable to the type given as long as it is
+		 *         not parameterized)
+		 */
+		@SuppressWarnings ( "unchecked" )
+		private <T> Injectron<? extends T>[] assignableTo( Type<T> type ) {
+			return (Injectron<? extends T>[]) assignableInjectrons.get( type.rawType );
+		}
+
 		@SuppressWarnings ( "unchecked" )
 		private <T> Injectron<T>[] injectronsForType( Type<T> type ) {
-			return (Injectron<T>[]) injectrons.get( type.rawType );
+			return (Injectron<T>[]) table.get( type.rawType );
 		}
 
 		@Override
@@ -285,17 +583,23 @@ public final class Inject {
 		}
 	}
 
-	private static final class RepositoryInjectron<T> implements Injectron<T> {
+	private static class RepositoryInjectron<T> implements Injectron<T> {
 
 		private final Injector injector;
 		private final Repository repository;
 		private final Supplier<? extends T> supplier;
 		private final InjectronInfo<T> info;
+		/**
+		 * True, if the {@link Scope} is known to yield the same instance for
+		 * the same {@link Dependency} for ever
+		 */
+		final boolean constant;
 
-		RepositoryInjectron(Injector injector, Repository repository, Assembly<T> assembly, Expiry expiry, int serialID, int count) {
+		RepositoryInjectron(Injector injector, Repository repository, Assembly<T> assembly, Expiry expiry, boolean constant, int serialID, int count) {
 			super();
 			this.injector = injector;
 			this.repository = repository;
+			this.constant = constant;
 			this.supplier = assembly.supplier();
 			this.info = new InjectronInfo<>(assembly.resource(), assembly.source(), expiry, serialID, count);
 		}
@@ -317,6 +621,31 @@ public final class Inject {
 		}
 	}
 
+	/**
+	 * A {@link RepositoryInjectron} for {@link Scoped#APPLICATION} that
+	 * remembers the instance once it has been served by the
+	 * {@link Repository}. From there on the instance is returned without
+	 * creating a {@link Dependency} for the injection or a {@link Provider}.
+	 */
+	private static final class ApplicationInjectron<T> extends RepositoryInjectron<T> {
+
+		private volatile T instance;
+
+		ApplicationInjectron(Injector injector, Repository repository, Assembly<T> assembly, Expiry expiry, boolean constant, int serialID, int count) {
+			super( injector, repository, assembly, expiry, constant, serialID, count );
+		}
+
+		@Override
+		public T instanceFor( Dependency<? super T> dependency ) {
+			T res = instance;
+			if ( res == null ) {
+				res = super.instanceFor( dependency );
+				instance = res;
+			}
+			return res;
+		}
+	}
+
 	private static final class DependencyProvider<T> implements Provider<T> {
 
 		private final Supplier<? extends T> supplier;
@@ -335,6 +664,19 @@ public final class Inject {
 		}
 	}
 	
+	/**
+	 * Upper limit of {@link Dependency}s remembered per {@link Injector}. This
+	 * guards against unbounded growth should dependencies be created
+	 * dynamically (e.g. with computed names).
+	 */
+	static final int MAX_CACHED_MATCHES = 1 << 16;
+
+	private static final Injectron<?>[] NO_INJECTRONS = new Injectron<?>[0];
+
+	/**
+	 * The {@link Expiry} of the predefined {@link Scope}s (by identity).
+	 * Scopes created on demand are {@link ExpiringScope}s.
+	 */
 	static final IdentityHashMap<Scope, Expiry> EXPIRATION = defaultExpiration();
 	
 	private static IdentityHashMap<Scope, Expiry> defaultExpiration() {
@@ -342,18 +684,31 @@ public final class Inject {
 		map.put( Scoped.APPLICATION, Expiry.NEVER );
 		map.put( Scoped.INJECTION, Expiry.expires( 1000 ) );
 		map.put( Scoped.THREAD, Expiry.expires( 500 ) );
+		map.put( Scoped.CARRIER, Expiry.expires( 500 ) );
+		map.put( Scoped.UNIT_OF_WORK, Expiry.expires( 750 ) );
+		map.put( Scoped.TASK_TREE, Expiry.expires( 750 ) );
+		map.put( Scoped.SOFT, Expiry.expires( 50 ) );
+		map.put( Scoped.GENERATION, Expiry.expires( 80 ) );
+		map.put( Scoped.WEAK, Expiry.expires( 60 ) );
 		map.put( Scoped.DEPENDENCY_TYPE, Expiry.NEVER );
 		map.put( Scoped.TARGET_INSTANCE, Expiry.NEVER );
 		map.put( Scoped.DEPENDENCY, Expiry.NEVER );
 		return map;
 	}
 	
-	public static final Comparator<Injectron<?>> COMPARATOR = new InjectronComparator();
+	public static final Comparator<Injectron<?>> COMPARATOR = new InjectronComparator( null );
 
+	/**
+	 * When sorting all {@link Injectron}s of a container the canonical names
+	 * are remembered so that each is computed once instead of twice per
+	 * comparison.
+	 */
 	private static final class InjectronComparator implements Comparator<Injectron<?>> {
 
-		InjectronComparator() {
-			// make visible
+		private final Map<Class<?>, String> names;
+
+		InjectronComparator( Map<Class<?>, String> names ) {
+			this.names = names;
 		}
 
 		@Override
@@ -369,9 +724,21 @@ public final class Inject {
 				if (c2.isAssignableFrom(c1)) {
 					return -1;
 				}
-				return c1.getCanonicalName().compareTo( c2.getCanonicalName() );
+				return name( c1 ).compareTo( name( c2 ) );
 			}
 			return Instance.comparePrecision( r1, r2 );
 		}
+
+		private String name( Class<?> type ) {
+			if ( names == null ) {
+				return type.getCanonicalName();
+			}
+			String name = names.get( type );
+			if ( name == null ) {
+				name = type.getCanonicalName();
+				names.put( type, name );
+			}
+			return name;
+		}
 	}	
 }
@@ -0,0 +1,58 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+/**
+ * A snapshot of the counters of the pools of a {@link Scoped#pooled(int)}
+ * {@link Scope} (summed over all bindings and injectors using the scope).
+ *
+ * @see Scoped#poolStats(Scope)
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class PoolStats {
+
+	/**
+	 * Number of instances leased.
+	 */
+	public final long leases;
+
+	/**
+	 * Number of leases that had to wait because the pool was saturated (all
+	 * its instances were leased).
+	 */
+	public final long saturated;
+
+	/**
+	 * Total time in nanoseconds spent waiting for saturated pools.
+	 */
+	public final long waitNanos;
+
+	/**
+	 * Number of instances created to fill the pools.
+	 */
+	public final long created;
+
+	/**
+	 * Number of instances currently leased.
+	 */
+	public final long inUse;
+
+	public PoolStats( long leases, long saturated, long waitNanos, long created, long inUse ) {
+		super();
+		this.leases = leases;
+		this.saturated = saturated;
+		this.waitNanos = waitNanos;
+		this.created = created;
+		this.inUse = inUse;
+	}
+
+	@Override
+	public String toString() {
+		return "leases: " + leases + ", saturated: " + saturated + ", wait: " + waitNanos
+				+ "ns, created: " + created + ", in use: " + inUse;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+
+/**
+ * A snapshot of the counters of the resolution cache an {@link Injector} uses
+ * to remember which {@link Injectron} matched a particular {@link Dependency}.
+ *
+ * @see Inject#resolutionStats(Injector)
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class ResolutionStats {
+
+	/**
+	 * Number of lookups answered by the cache.
+	 */
+	public final long hits;
+
+	/**
+	 * Number of lookups that had to search for the most precise
+	 * {@link Injectron}.
+	 */
+	public final long misses;
+
+	/**
+	 * Number of {@link Dependency}s currently remembered.
+	 */
+	public final int size;
+
+	public ResolutionStats( long hits, long misses, int size ) {
+		super();
+		this.hits = hits;
+		this.misses = misses;
+		this.size = size;
+	}
+
+	@Override
+	public String toString() {
+		return "hits: " + hits + ", misses: " + misses + ", size: " + size;
+	}
+}
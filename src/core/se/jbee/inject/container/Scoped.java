@@ -5,12 +5,38 @@
  */
 package se.jbee.inject.container;
 
-import java.util.HashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import se.jbee.inject.Dependency;
+import se.jbee.inject.Expiry;
+import se.jbee.inject.Injector;
 import se.jbee.inject.Injectron;
 import se.jbee.inject.InjectronInfo;
+import se.jbee.inject.Instance;
+import se.jbee.inject.Type;
+import se.jbee.inject.UnresolvableDependency.DependencyCycle;
+import se.jbee.inject.UnresolvableDependency.OutOfScope;
 
 /**
  * Utility as a factory to create/use {@link Scope}s.
@@ -19,9 +45,19 @@ import se.jbee.inject.InjectronInfo;
  */
 public final class Scoped {
 
+	/**
+	 * Derives the key instances are stored by in a {@link Scope} created by
+	 * {@link Scoped#uniqueBy(DependencyProperty)}.
+	 */
 	public interface DependencyProperty {
 
-		<T> String deriveFrom( Dependency<T> dependency );
+		/**
+		 * @return a key with {@link Object#equals(Object)} and
+		 *         {@link Object#hashCode()} implemented so that
+		 *         {@link Dependency}s with an equal property give equal
+		 *         keys (e.g. a {@link String})
+		 */
+		<T> Object deriveFrom( Dependency<T> dependency );
 	}
 
 	public static final DependencyProperty DEPENDENCY_TYPE_KEY = new DependencyTypeProperty();
@@ -42,8 +78,49 @@ public final class Scoped {
 	/**
 	 * Asks the {@link Provider} once per thread per binding which is understand commonly as a
 	 * usual 'per-thread' singleton.
+	 * 
+	 * @see #clearThreadScope(Thread)
+	 * @see #clearThreadScope()
+	 * @see #liveThreadRepositories()
+	 */
+	public static final Scope THREAD = new ThreadScope( APPLICATION );
+	/**
+	 * Asks the {@link Provider} once per binding and {@link Carrier}. The
+	 * instances are shared by all threads working within the same
+	 * {@link Carrier} (e.g. tasks forked by a task).
+	 */
+	public static final Scope CARRIER = new CarrierScope();
+	/**
+	 * Asks the {@link Provider} once per binding and {@link UnitOfWork} (e.g.
+	 * a request). Outside of a {@link UnitOfWork} nothing can be resolved in
+	 * this scope.
 	 */
-	public static final Scope THREAD = new ThreadScope(new ThreadLocal<>(), APPLICATION );
+	public static final Scope UNIT_OF_WORK = new UnitOfWorkScope();
+	/**
+	 * Asks the {@link Provider} once per binding and {@link TaskTree}. The
+	 * instances are shared by the root task and all its subtasks running
+	 * concurrently. Outside of a {@link TaskTree} nothing can be resolved in
+	 * this scope.
+	 */
+	public static final Scope TASK_TREE = new TaskTreeScope();
+	/**
+	 * Asks the {@link Provider} once per binding and {@link Generation}. A
+	 * {@link Generation} reuses the instances of the previous one unless their
+	 * type or a type they depend upon has changed.
+	 */
+	public static final Scope GENERATION = new GenerationScope();
+	/**
+	 * Like {@link #APPLICATION} but instances are only softly referenced so
+	 * that they can be collected under memory pressure. A collected instance
+	 * is created again on next use. Meant for large caches that can be
+	 * rebuild.
+	 */
+	public static final Scope SOFT = new ReferenceScope( true );
+	/**
+	 * Like {@link #SOFT} but instances are weakly referenced so that they are
+	 * collected as soon as no one else uses them any longer.
+	 */
+	public static final Scope WEAK = new ReferenceScope( false );
 
 	public static final Scope DEPENDENCY_TYPE = uniqueBy( DEPENDENCY_TYPE_KEY );
 	public static final Scope DEPENDENCY_INSTANCE = uniqueBy( DEPENDENCY_INSTANCE_KEY );
@@ -58,6 +135,101 @@ public final class Scoped {
 		return new SnapshotRepository( src, dest );
 	}
 
+	/**
+	 * Drops all {@link #THREAD} scoped instances of the given thread (in all
+	 * {@link Injector}s). The thread gets new instances on next use.
+	 */
+	public static void clearThreadScope( Thread thread ) {
+		( (ThreadScope) THREAD ).clear( thread );
+	}
+
+	/**
+	 * Drops all {@link #THREAD} scoped instances of all threads.
+	 */
+	public static void clearThreadScope() {
+		( (ThreadScope) THREAD ).clear( null );
+	}
+
+	/**
+	 * @return the number of threads still alive that have {@link #THREAD}
+	 *         scoped repositories (in any {@link Injector})
+	 */
+	public static int liveThreadRepositories() {
+		return ( (ThreadScope) THREAD ).live();
+	}
+
+	/**
+	 * @see #refreshAhead(long, TimeUnit, Executor)
+	 */
+	public static Scope refreshAhead( long timeToLive, TimeUnit unit ) {
+		return refreshAhead( timeToLive, unit, ForkJoinPool.commonPool() );
+	}
+
+	/**
+	 * Asks the {@link Provider} once per binding and again each time the
+	 * instance has been used for longer than the given time to live. Rebuilds
+	 * are done by the given {@link Executor} while the previous instance
+	 * continues to be served so that only the very first creation of an
+	 * instance is waited for.
+	 * 
+	 * The returned {@link Scope} is an {@link ExpiringScope} so that shorter
+	 * lived instances cannot be injected into longer lived ones. As each call
+	 * creates a new {@link Scope} it should be kept in a constant.
+	 */
+	public static Scope refreshAhead( long timeToLive, TimeUnit unit, Executor refresher ) {
+		long nanos = unit.toNanos( timeToLive );
+		if ( nanos <= 0L ) {
+			throw new IllegalArgumentException( "Time to live must be positive but was: "
+					+ timeToLive + " " + unit );
+		}
+		return new RefreshAheadScope( nanos, refresher );
+	}
+
+	/**
+	 * Keeps up to the given number of instances per binding and hands them out
+	 * as a lease to the current {@link UnitOfWork}. Within the unit the same
+	 * instance is used, when it ends the instance is returned to the pool.
+	 * Should all instances be leased the unit waits for one to be returned.
+	 * 
+	 * This is meant for types too expensive to create per
+	 * {@link Scoped#INJECTION} that cannot be shared between threads. Pooled
+	 * instances are more stable than {@link Scoped#UNIT_OF_WORK} instances
+	 * but cannot be injected into {@link Scoped#THREAD} or
+	 * {@link Scoped#APPLICATION} instances.
+	 * 
+	 * Note that a thread holding all instances of a pool in outer units will
+	 * wait forever for one of them in a nested unit.
+	 */
+	public static Scope pooled( int capacity ) {
+		if ( capacity <= 0 ) {
+			throw new IllegalArgumentException( "Pool capacity must be positive but was: " + capacity );
+		}
+		return new PooledScope( capacity );
+	}
+
+	/**
+	 * @param pooled
+	 *            a {@link Scope} created by {@link #pooled(int)}
+	 * @return the current counters of all pools of the given scope
+	 */
+	public static PoolStats poolStats( Scope pooled ) {
+		if ( !( pooled instanceof PooledScope ) ) {
+			throw new IllegalArgumentException( "Not a pooled scope: " + pooled );
+		}
+		return ( (PooledScope) pooled ).stats();
+	}
+
+	/**
+	 * Instances with a time to live are considered to be more stable than
+	 * those of a thread but less stable than application singletons. Among
+	 * each other a shorter time to live expires more frequent (with a power of
+	 * 2 resolution).
+	 */
+	static Expiry refreshAheadExpiry( long nanos ) {
+		int log2 = 63 - Long.numberOfLeadingZeros( nanos );
+		return Expiry.expires( 100 + 4 * ( 63 - log2 ) );
+	}
+
 	/**
 	 * What is usually called a 'default'-{@link Scope} will ask the {@link Provider} passed each
 	 * time the {@link Repository#serve(Dependency, InjectronInfo, Provider)}}-method is invoked.
@@ -93,37 +265,638 @@ public final class Scoped {
 
 	}
 
+	/**
+	 * Each thread has one {@link ThreadRepositories} with a {@link Repository}
+	 * per {@link ThreadRepository} (one per {@link Injector}). They are
+	 * registered weakly keyed by their {@link Thread} so they can be cleared
+	 * from other threads and are evicted once their thread has died. Dead
+	 * threads are looked for each time the registry has doubled in size.
+	 * 
+	 * @see Scoped#THREAD
+	 */
 	private static final class ThreadScope
-			implements Scope, Repository {
-
-		private final ThreadLocal<Repository> threadRepository;
-		private final Scope repositoryScope;
+			implements Scope {
 
-		ThreadScope( ThreadLocal<Repository> threadRepository, Scope repositoryScope ) {
+		private final ThreadLocal<ThreadRepositories> current = new ThreadLocal<>();
+		/**
+		 * Guarded by itself
+		 */
+		private final Map<Thread, ThreadRepositories> registry = new WeakHashMap<>();
+		/**
+		 * Size of the {@link #registry} that triggers the next
+		 * {@link #evictDead()} (guarded by {@link #registry}).
+		 */
+		private int evictAt = 16;
+		final Scope repositoryScope;
+
+		ThreadScope( Scope repositoryScope ) {
 			super();
-			this.threadRepository = threadRepository;
 			this.repositoryScope = repositoryScope;
 		}
 
 		@Override
-		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
-			Repository repository = threadRepository.get();
-			if ( repository == null ) {
+		public Repository init() {
+			return new ThreadRepository( this );
+		}
+
+		ThreadRepositories repositories() {
+			ThreadRepositories repositories = current.get();
+			if ( repositories == null ) {
 				// since each thread is just accessing its own repo there cannot be a repo set for the running thread after we checked for null
-				repository = repositoryScope.init();
-				threadRepository.set( repository );
+				repositories = new ThreadRepositories();
+				current.set( repositories );
+				synchronized ( registry ) {
+					if ( registry.size() >= evictAt ) {
+						evictDead();
+						evictAt = Math.max( 16, 2 * registry.size() );
+					}
+					registry.put( Thread.currentThread(), repositories );
+				}
+			}
+			return repositories;
+		}
+
+		void clear( Thread thread ) {
+			synchronized ( registry ) {
+				if ( thread == null ) {
+					for ( ThreadRepositories repositories : registry.values() ) {
+						repositories.clear();
+					}
+				} else {
+					ThreadRepositories repositories = registry.get( thread );
+					if ( repositories != null ) {
+						repositories.clear();
+					}
+				}
 			}
-			return repository.serve( dependency, info, provider );
+		}
+
+		int live() {
+			synchronized ( registry ) {
+				evictDead();
+				return registry.size();
+			}
+		}
+
+		/**
+		 * Threads that have terminated but have not been collected yet.
+		 */
+		private void evictDead() {
+			Iterator<Thread> threads = registry.keySet().iterator();
+			while ( threads.hasNext() ) {
+				if ( !threads.next().isAlive() ) {
+					threads.remove();
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "(per-thread)";
+		}
+	}
+
+	private static final class ThreadRepository
+			implements Repository {
+
+		private final ThreadScope scope;
+
+		ThreadRepository( ThreadScope scope ) {
+			this.scope = scope;
+		}
+
+		@Override
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			return scope.repositories().repository( this, scope.repositoryScope ).serve( dependency, info, provider );
+		}
+	}
+
+	/**
+	 * The {@link Repository}s of a single thread. Only the thread itself adds
+	 * to them but any thread can {@link #clear()} them. Therefore the pairs of
+	 * owner and repository are kept in an array that is replaced on change.
+	 * 
+	 * The owners are referenced weakly so that the repositories of a discarded
+	 * {@link Injector} are not kept by the threads that used it. They are
+	 * dropped when the thread adds its next repository.
+	 */
+	private static final class ThreadRepositories {
+
+		private static final Object[] EMPTY = new Object[0];
+
+		private volatile Object[] entries = EMPTY;
+
+		ThreadRepositories() {
+			// make visible
+		}
+
+		Repository repository( Repository owner, Scope repositoryScope ) {
+			Object[] pairs = entries;
+			for ( int i = 0; i < pairs.length; i += 2 ) {
+				if ( ( (Reference<?>) pairs[i] ).get() == owner ) {
+					return (Repository) pairs[i + 1];
+				}
+			}
+			Repository repository = repositoryScope.init();
+			synchronized ( this ) {
+				pairs = entries;
+				int live = 0;
+				Object[] updated = new Object[pairs.length + 2];
+				for ( int i = 0; i < pairs.length; i += 2 ) {
+					if ( ( (Reference<?>) pairs[i] ).get() != null ) {
+						updated[live++] = pairs[i];
+						updated[live++] = pairs[i + 1];
+					}
+				}
+				updated[live++] = new WeakReference<>( owner );
+				updated[live++] = repository;
+				entries = live == updated.length ? updated : Arrays.copyOf( updated, live );
+			}
+			return repository;
+		}
+
+		synchronized void clear() {
+			entries = EMPTY;
+		}
+	}
+
+	/**
+	 * Each {@link Injector} has one {@link CarrierScope} {@link Repository}
+	 * that delegates to the {@link Repository} the {@link Carrier} bound to
+	 * the current thread has for it.
+	 * 
+	 * @see Scoped#CARRIER
+	 */
+	private static final class CarrierScope
+			implements Scope {
+
+		CarrierScope() {
+			// make visible
 		}
 
 		@Override
 		public Repository init() {
-			return this;
+			return new CarrierRepository( this );
 		}
 
 		@Override
 		public String toString() {
-			return "(per-thread)";
+			return "(per-carrier)";
+		}
+	}
+
+	private static final class CarrierRepository
+			implements Repository {
+
+		private final Scope scope;
+
+		CarrierRepository( Scope scope ) {
+			this.scope = scope;
+		}
+
+		@Override
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			Carrier carrier = Carrier.current();
+			if ( carrier == null ) {
+				throw new OutOfScope( dependency, scope );
+			}
+			return carrier.repository( this ).serve( dependency, info, provider );
+		}
+	}
+
+	private static final class UnitOfWorkScope
+			implements Scope {
+
+		UnitOfWorkScope() {
+			// make visible
+		}
+
+		@Override
+		public Repository init() {
+			return new UnitOfWorkRepository( this );
+		}
+
+		@Override
+		public String toString() {
+			return "(per-unit-of-work)";
+		}
+	}
+
+	private static final class UnitOfWorkRepository
+			implements Repository {
+
+		private final Scope scope;
+
+		UnitOfWorkRepository( Scope scope ) {
+			this.scope = scope;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			UnitOfWork work = UnitOfWork.current();
+			if ( work == null ) {
+				throw new OutOfScope( dependency, scope );
+			}
+			Object[] arena = work.arena( this, info.count );
+			T res = (T) arena[info.serialID];
+			if ( res == null ) {
+				res = provider.provide();
+				arena[info.serialID] = res;
+				work.created( res );
+			}
+			return res;
+		}
+	}
+
+	private static final class RefreshAheadScope
+			implements ExpiringScope {
+
+		private final long timeToLive;
+		private final Executor refresher;
+		private final Expiry expiry;
+
+		RefreshAheadScope( long timeToLive, Executor refresher ) {
+			this.timeToLive = timeToLive;
+			this.refresher = refresher;
+			this.expiry = refreshAheadExpiry( timeToLive );
+		}
+
+		@Override
+		public Repository init() {
+			return new RefreshAheadRepository( timeToLive, refresher );
+		}
+
+		@Override
+		public Expiry expiry() {
+			return expiry;
+		}
+
+		@Override
+		public String toString() {
+			return "(refresh-ahead " + TimeUnit.NANOSECONDS.toMillis( timeToLive ) + "ms)";
+		}
+	}
+
+	/**
+	 * Keeps the instance and its creation time per {@link InjectronInfo#serialID}.
+	 * Once an instance is older than the time to live one caller wins the
+	 * right to schedule a rebuild, all callers (including the winner) are
+	 * served the stale instance until the rebuild replaced it.
+	 * 
+	 * Should a rebuild fail the stale instance is kept and a later request
+	 * will try again.
+	 */
+	private static final class RefreshAheadRepository
+			implements Repository {
+
+		private static final Logger LOG = Logger.getLogger( RefreshAheadRepository.class.getName() );
+
+		private final long timeToLive;
+		private final Executor refresher;
+		private final AtomicReference<AtomicReferenceArray<Object>> entries = new AtomicReference<>();
+
+		RefreshAheadRepository( long timeToLive, Executor refresher ) {
+			this.timeToLive = timeToLive;
+			this.refresher = refresher;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			final AtomicReferenceArray<Object> slots = slots( info.count );
+			final int serialID = info.serialID;
+			while ( true ) {
+				Object res = slots.get( serialID );
+				if ( res == null ) {
+					Creation creation = new Creation();
+					if ( slots.compareAndSet( serialID, null, creation ) ) {
+						return create( slots, serialID, creation, provider );
+					}
+				} else if ( res instanceof Creation ) {
+					( (Creation) res ).await( dependency, info );
+				} else {
+					Refreshable entry = (Refreshable) res;
+					if ( System.nanoTime() - entry.created > timeToLive
+							&& entry.refreshing.compareAndSet( false, true ) ) {
+						refresh( slots, info, entry, provider );
+					}
+					return (T) entry.instance;
+				}
+			}
+		}
+
+		private static <T> T create( AtomicReferenceArray<Object> slots, int serialID, Creation creation, Provider<T> provider ) {
+			T res = null;
+			try {
+				res = provider.provide();
+			} finally {
+				slots.set( serialID, res == null ? null : new Refreshable( res, System.nanoTime() ) );
+				creation.done.countDown();
+			}
+			return res;
+		}
+
+		private <T> void refresh( AtomicReferenceArray<Object> slots, InjectronInfo<T> info,
+				Refreshable stale, Provider<T> provider ) {
+			try {
+				refresher.execute( () -> {
+					try {
+						T instance = provider.provide();
+						if ( instance != null ) {
+							slots.set( info.serialID, new Refreshable( instance, System.nanoTime() ) );
+							return;
+						}
+					} catch ( RuntimeException e ) {
+						LOG.log( Level.WARNING, "Failed to refresh " + info.resource + ", keeping stale instance.", e );
+					}
+					stale.refreshing.set( false );
+				} );
+			} catch ( RuntimeException e ) {
+				stale.refreshing.set( false );
+				LOG.log( Level.WARNING, "Failed to schedule refresh of " + info.resource, e );
+			}
+		}
+
+		private AtomicReferenceArray<Object> slots( int count ) {
+			AtomicReferenceArray<Object> slots = entries.get();
+			if ( slots == null ) {
+				entries.compareAndSet( null, new AtomicReferenceArray<>( count ) );
+				slots = entries.get();
+			}
+			return slots;
+		}
+	}
+
+	private static final class Refreshable {
+
+		final Object instance;
+		final long created;
+		final AtomicBoolean refreshing = new AtomicBoolean();
+
+		Refreshable( Object instance, long created ) {
+			this.instance = instance;
+			this.created = created;
+		}
+	}
+
+	/**
+	 * The counters are shared by all {@link PoolRepository}s of the scope.
+	 * 
+	 * @see Scoped#pooled(int)
+	 */
+	private static final class PooledScope
+			implements ExpiringScope {
+
+		private static final Expiry EXPIRY = Expiry.expires( 700 );
+
+		final int capacity;
+		final LongAdder leases = new LongAdder();
+		final LongAdder saturated = new LongAdder();
+		final LongAdder waitNanos = new LongAdder();
+		final LongAdder created = new LongAdder();
+		final LongAdder inUse = new LongAdder();
+
+		PooledScope( int capacity ) {
+			this.capacity = capacity;
+		}
+
+		@Override
+		public Repository init() {
+			return new PoolRepository( this );
+		}
+
+		@Override
+		public Expiry expiry() {
+			return EXPIRY;
+		}
+
+		PoolStats stats() {
+			return new PoolStats( leases.sum(), saturated.sum(), waitNanos.sum(), created.sum(), inUse.sum() );
+		}
+
+		@Override
+		public String toString() {
+			return "(pooled " + capacity + ")";
+		}
+	}
+
+	/**
+	 * Has one {@link InstancePool} per {@link InjectronInfo#serialID}. The
+	 * {@link UnitOfWork} arena remembers the leased instance, the
+	 * {@link Lease} returns it when the unit ends.
+	 */
+	private static final class PoolRepository
+			implements Repository {
+
+		private final PooledScope scope;
+		private final AtomicReference<AtomicReferenceArray<InstancePool>> pools = new AtomicReference<>();
+
+		PoolRepository( PooledScope scope ) {
+			this.scope = scope;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			UnitOfWork work = UnitOfWork.current();
+			if ( work == null ) {
+				throw new OutOfScope( dependency, scope );
+			}
+			Object[] arena = work.arena( this, info.count );
+			T res = (T) arena[info.serialID];
+			if ( res == null ) {
+				InstancePool pool = pool( info );
+				res = pool.lease( provider );
+				if ( res != null ) {
+					arena[info.serialID] = res;
+					work.created( new Lease( pool, res ) );
+				}
+			}
+			return res;
+		}
+
+		private InstancePool pool( InjectronInfo<?> info ) {
+			AtomicReferenceArray<InstancePool> slots = pools.get();
+			if ( slots == null ) {
+				pools.compareAndSet( null, new AtomicReferenceArray<>( info.count ) );
+				slots = pools.get();
+			}
+			InstancePool pool = slots.get( info.serialID );
+			if ( pool == null ) {
+				slots.compareAndSet( info.serialID, null, new InstancePool( scope ) );
+				pool = slots.get( info.serialID );
+			}
+			return pool;
+		}
+	}
+
+	/**
+	 * Idle instances are kept in stripes to reduce contention, a thread
+	 * returns to and looks first in the stripe of its id. The
+	 * {@link Semaphore} bounds the number of leased (and thereby created)
+	 * instances to the capacity.
+	 */
+	private static final class InstancePool {
+
+		private final PooledScope scope;
+		private final Semaphore permits;
+		private final List<ConcurrentLinkedQueue<Object>> stripes;
+
+		InstancePool( PooledScope scope ) {
+			this.scope = scope;
+			this.permits = new Semaphore( scope.capacity );
+			int n = Math.min( scope.capacity, Runtime.getRuntime().availableProcessors() );
+			this.stripes = new ArrayList<>( n );
+			for ( int i = 0; i < n; i++ ) {
+				stripes.add( new ConcurrentLinkedQueue<>() );
+			}
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		<T> T lease( Provider<T> provider ) {
+			if ( !permits.tryAcquire() ) {
+				scope.saturated.increment();
+				long start = System.nanoTime();
+				permits.acquireUninterruptibly();
+				scope.waitNanos.add( System.nanoTime() - start );
+			}
+			int home = stripe();
+			for ( int i = 0; i < stripes.size(); i++ ) {
+				Object idle = stripes.get( ( home + i ) % stripes.size() ).poll();
+				if ( idle != null ) {
+					leased();
+					return (T) idle;
+				}
+			}
+			T res = null;
+			try {
+				res = provider.provide();
+			} finally {
+				if ( res == null ) {
+					permits.release();
+				}
+			}
+			if ( res != null ) {
+				scope.created.increment();
+				leased();
+			}
+			return res;
+		}
+
+		private void leased() {
+			scope.leases.increment();
+			scope.inUse.increment();
+		}
+
+		void release( Object instance ) {
+			stripes.get( stripe() ).offer( instance );
+			scope.inUse.decrement();
+			permits.release();
+		}
+
+		private int stripe() {
+			return (int) ( Thread.currentThread().getId() % stripes.size() );
+		}
+	}
+
+	/**
+	 * Returns a leased instance to its {@link InstancePool} when the
+	 * {@link UnitOfWork} it was leased to ends.
+	 */
+	private static final class Lease
+			implements AutoCloseable {
+
+		private final InstancePool pool;
+		private final Object instance;
+
+		Lease( InstancePool pool, Object instance ) {
+			this.pool = pool;
+			this.instance = instance;
+		}
+
+		@Override
+		public void close() {
+			pool.release( instance );
+		}
+	}
+
+	private static final class TaskTreeScope
+			implements Scope {
+
+		TaskTreeScope() {
+			// make visible
+		}
+
+		@Override
+		public Repository init() {
+			return new TaskTreeRepository( this );
+		}
+
+		@Override
+		public String toString() {
+			return "(per-task-tree)";
+		}
+	}
+
+	/**
+	 * Claims slots of the {@link TaskTree}s like the
+	 * {@link LazyInjectronRepository} so that subtasks only wait for instances
+	 * currently created by another subtask.
+	 */
+	private static final class TaskTreeRepository
+			implements Repository {
+
+		private final Scope scope;
+
+		TaskTreeRepository( Scope scope ) {
+			this.scope = scope;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			TaskTree tree = TaskTree.current();
+			if ( tree == null || tree.isClosed() ) {
+				throw new OutOfScope( dependency, scope );
+			}
+			final AtomicReferenceArray<Object> slots = tree.slots( this, info.count );
+			final int serialID = info.serialID;
+			while ( true ) {
+				Object res = slots.get( serialID );
+				if ( res == null ) {
+					Creation creation = new Creation();
+					if ( slots.compareAndSet( serialID, null, creation ) ) {
+						T created = LazyInjectronRepository.create( slots, serialID, creation, provider );
+						if ( !tree.created( created ) ) {
+							throw new OutOfScope( dependency, scope );
+						}
+						return created;
+					}
+				} else if ( res instanceof Creation ) {
+					( (Creation) res ).await( dependency, info );
+				} else {
+					return (T) res;
+				}
+			}
+		}
+	}
+
+	private static final class GenerationScope
+			implements Scope {
+
+		GenerationScope() {
+			// make visible
+		}
+
+		@Override
+		public Repository init() {
+			return new Generation.History();
+		}
+
+		@Override
+		public String toString() {
+			return "(per-generation)";
 		}
 	}
 
@@ -213,8 +986,8 @@ public final class Scoped {
 		}
 
 		@Override
-		public <T> String deriveFrom( Dependency<T> dependency ) {
-			return first.deriveFrom( dependency ).concat( second.deriveFrom( dependency ) );
+		public <T> Object deriveFrom( Dependency<T> dependency ) {
+			return new Key( first.deriveFrom( dependency ), second.deriveFrom( dependency ) );
 		}
 
 	}
@@ -227,12 +1000,15 @@ public final class Scoped {
 		}
 
 		@Override
-		public <T> String deriveFrom( Dependency<T> dependency ) {
-			StringBuilder b = new StringBuilder();
-			for ( int i = dependency.injectionDepth() - 1; i >= 0; i-- ) {
-				b.append( dependency.target( i ) );
+		public <T> Object deriveFrom( Dependency<T> dependency ) {
+			Object[] parts = new Object[2 * dependency.injectionDepth()];
+			int j = parts.length;
+			for ( Dependency.Hierarchy h = dependency.hierarchy(); h != null; h = h.parent() ) {
+				Instance<?> target = h.injection().target.instance;
+				parts[--j] = new ExactType( target.type() );
+				parts[--j] = target.name;
 			}
-			return b.toString();
+			return new Key( parts );
 		}
 
 		@Override
@@ -250,8 +1026,8 @@ public final class Scoped {
 		}
 
 		@Override
-		public <T> String deriveFrom( Dependency<T> dependency ) {
-			return dependency.type().toString();
+		public <T> Object deriveFrom( Dependency<T> dependency ) {
+			return new ExactType( dependency.type() );
 		}
 
 		@Override
@@ -269,22 +1045,90 @@ public final class Scoped {
 		}
 
 		@Override
-		public <T> String deriveFrom( Dependency<T> dependency ) {
-			return dependency.instance.name.toString() + "@" + dependency.type().toString();
+		public <T> Object deriveFrom( Dependency<T> dependency ) {
+			return new Key( dependency.instance.name, new ExactType( dependency.type() ) );
 		}
 
 		@Override
 		public String toString() {
-			return "dependendy-type";
+			return "dependency-instance";
 		}
 	}
 
-	// e.g. get receiver class from dependency -to be reusable the provider could offer a identity --> a wrapper class would be needed anyway so maybe best is to have quite similar impl. all using a identity hash-map
+	/**
+	 * A structural key composed of parts (with a hash computed once).
+	 */
+	private static final class Key {
+
+		private final Object[] parts;
+		private final int hash;
+
+		Key( Object... parts ) {
+			this.parts = parts;
+			this.hash = Arrays.hashCode( parts );
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals( Object obj ) {
+			if ( this == obj ) {
+				return true;
+			}
+			if ( !( obj instanceof Key ) ) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hash == other.hash && Arrays.equals( parts, other.parts );
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString( parts );
+		}
+	}
+
+	/**
+	 * A {@link Type} as key that is equal if the {@link Type}s are
+	 * {@link Type#equalToExactly(Type)}.
+	 */
+	private static final class ExactType {
+
+		private final Type<?> type;
+
+		ExactType( Type<?> type ) {
+			this.type = type;
+		}
+
+		@Override
+		public int hashCode() {
+			return type.hashCode();
+		}
+
+		@Override
+		public boolean equals( Object obj ) {
+			return obj instanceof ExactType && type.equalToExactly( ( (ExactType) obj ).type );
+		}
 
+		@Override
+		public String toString() {
+			return type.toString();
+		}
+	}
+
+	/**
+	 * Instances are stored by the key derived from the {@link Dependency}.
+	 * Like in the {@link LazyInjectronRepository} the first thread asking for
+	 * a key creates the instance while other threads asking for the same key
+	 * wait for it.
+	 */
 	private static final class DependencyPropertyRepository
 			implements Repository {
 
-		private final Map<String, Object> instances = new HashMap<>();
+		private final Map<Object, Object> instances = new ConcurrentHashMap<>();
 		private final DependencyProperty property;
 
 		DependencyPropertyRepository( DependencyProperty injectionKey ) {
@@ -295,21 +1139,114 @@ public final class Scoped {
 		@Override
 		@SuppressWarnings ( "unchecked" )
 		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
-			final String key = property.deriveFrom( dependency );
-			T instance = (T) instances.get( key );
-			if ( instance != null ) {
-				return instance;
-			}
-			synchronized ( instances ) {
-				instance = (T) instances.get( key );
-				if ( instance == null ) {
-					instance = provider.provide();
-					instances.put( key, instance );
+			final Object key = property.deriveFrom( dependency );
+			while ( true ) {
+				Object res = instances.get( key );
+				if ( res == null ) {
+					Creation creation = new Creation();
+					if ( instances.putIfAbsent( key, creation ) == null ) {
+						return create( key, creation, provider );
+					}
+				} else if ( res instanceof Creation ) {
+					( (Creation) res ).await( dependency, info );
+				} else {
+					return (T) res;
 				}
 			}
-			return instance;
 		}
 
+		private <T> T create( Object key, Creation creation, Provider<T> provider ) {
+			T res = null;
+			try {
+				res = provider.provide();
+			} finally {
+				if ( res == null ) {
+					instances.remove( key, creation );
+				} else {
+					instances.replace( key, creation, res );
+				}
+				creation.done.countDown();
+			}
+			return res;
+		}
+	}
+
+	private static final class ReferenceScope
+			implements Scope {
+
+		private final boolean soft;
+
+		ReferenceScope( boolean soft ) {
+			this.soft = soft;
+		}
+
+		@Override
+		public Repository init() {
+			return new ReferenceRepository( soft );
+		}
+
+		@Override
+		public String toString() {
+			return soft ? "(per-app-soft)" : "(per-app-weak)";
+		}
+	}
+
+	/**
+	 * Like the {@link LazyInjectronRepository} but the slots hold a
+	 * {@link Reference} to the instance. When it has been cleared the slot is
+	 * claimed again to create a new instance.
+	 */
+	private static final class ReferenceRepository
+			implements Repository {
+
+		private final boolean soft;
+		private final AtomicReference<AtomicReferenceArray<Object>> instances = new AtomicReference<>();
+
+		ReferenceRepository( boolean soft ) {
+			this.soft = soft;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			final AtomicReferenceArray<Object> slots = slots( info.count );
+			final int serialID = info.serialID;
+			while ( true ) {
+				Object res = slots.get( serialID );
+				if ( res instanceof Creation ) {
+					( (Creation) res ).await( dependency, info );
+				} else {
+					T instance = res == null ? null : ( (Reference<T>) res ).get();
+					if ( instance != null ) {
+						return instance;
+					}
+					Creation creation = new Creation();
+					if ( slots.compareAndSet( serialID, res, creation ) ) {
+						return create( slots, serialID, creation, provider );
+					}
+				}
+			}
+		}
+
+		private <T> T create( AtomicReferenceArray<Object> slots, int serialID, Creation creation, Provider<T> provider ) {
+			T res = null;
+			try {
+				res = provider.provide();
+			} finally {
+				slots.set( serialID, res == null ? null : soft ? new SoftReference<>( res ) : new WeakReference<>( res ) );
+				creation.done.countDown();
+			}
+			return res;
+		}
+
+		private AtomicReferenceArray<Object> slots( int count ) {
+			AtomicReferenceArray<Object> slots = instances.get();
+			if ( slots == null ) {
+				instances.compareAndSet( null, new AtomicReferenceArray<>( count ) );
+				slots = instances.get();
+			}
+			return slots;
+		}
 	}
 
 	/**
@@ -341,12 +1278,16 @@ public final class Scoped {
 	 * updated. This can be used to create a thread, request or application
 	 * {@link Scope}.
 	 * 
+	 * Each slot is created by the first thread claiming it. Other threads
+	 * asking for the same slot wait for that instance, threads asking for
+	 * other slots are not blocked.
+	 * 
 	 * @author Jan Bernitt (jan@jbee.se)
 	 */
 	private static final class LazyInjectronRepository
 			implements Repository {
 
-		private Object[] instances;
+		private final AtomicReference<AtomicReferenceArray<Object>> instances = new AtomicReference<>();
 
 		LazyInjectronRepository() {
 			super();
@@ -355,25 +1296,85 @@ public final class Scoped {
 		@Override
 		@SuppressWarnings ( "unchecked" )
 		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
-			if ( instances == null ) {
-				instances = new Object[info.count];
-			}
+			final AtomicReferenceArray<Object> slots = slots( info.count );
 			final int serialID = info.serialID;
-			T res = (T) instances[serialID];
-			if ( res != null ) {
-				return res;
-			}
-			// just sync the (later) unexpected path that is executed once
-			synchronized ( instances ) {
-				res = (T) instances[serialID];
-				if ( res == null ) { // we need to ask again since the instance could have been initialized before we got entrance to the sync block
-					res = provider.provide();
-					instances[serialID] = res;
+			while ( true ) {
+				Object res = slots.get( serialID );
+				if ( res == null ) {
+					Creation creation = new Creation();
+					if ( slots.compareAndSet( serialID, null, creation ) ) {
+						return create( slots, serialID, creation, provider );
+					}
+				} else if ( res instanceof Creation ) {
+					( (Creation) res ).await( dependency, info );
+				} else {
+					return (T) res;
 				}
 			}
+		}
+
+		private AtomicReferenceArray<Object> slots( int count ) {
+			AtomicReferenceArray<Object> slots = instances.get();
+			if ( slots == null ) {
+				instances.compareAndSet( null, new AtomicReferenceArray<>( count ) );
+				slots = instances.get();
+			}
+			return slots;
+		}
+
+		/**
+		 * Should the {@link Provider} fail or yield null the slot is emptied so
+		 * that waiting threads try again (as they would have done with a
+		 * lock).
+		 */
+		private static <T> T create( AtomicReferenceArray<Object> slots, int serialID, Creation creation, Provider<T> provider ) {
+			T res = null;
+			try {
+				res = provider.provide();
+			} finally {
+				slots.set( serialID, res );
+				creation.done.countDown();
+			}
 			return res;
 		}
+	}
+
+	/**
+	 * A placeholder for a instance that is currently created by the
+	 * {@link #thread}.
+	 */
+	private static final class Creation {
 
+		final Thread thread = Thread.currentThread();
+		final CountDownLatch done = new CountDownLatch( 1 );
+
+		Creation() {
+			// make visible
+		}
+
+		/**
+		 * Waits for the creating thread to finish (whether successful or not).
+		 * 
+		 * @throws DependencyCycle
+		 *             in case the current thread is the creating thread
+		 */
+		void await( Dependency<?> dependency, InjectronInfo<?> info ) throws DependencyCycle {
+			if ( thread == Thread.currentThread() ) {
+				throw new DependencyCycle( dependency, info.resource );
+			}
+			boolean interrupted = false;
+			while ( true ) {
+				try {
+					done.await();
+					break;
+				} catch ( InterruptedException e ) {
+					interrupted = true;
+				}
+			}
+			if ( interrupted ) {
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
 
 }
@@ -0,0 +1,199 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.InjectronInfo;
+
+/**
+ * A tree of tasks that shares the instances of the {@link Scoped#TASK_TREE}
+ * {@link Scope} from its {@link #root()} until it is {@link #close()}d.
+ * 
+ * The root is bound to the thread that created it. Subtasks are
+ * {@link #fork(Callable)}ed or wrapped with {@link #bind(Callable)} so that
+ * the tree is bound to the thread that runs them. Subtasks forked within
+ * subtasks belong to the same tree.
+ * 
+ * Instances are kept in a slot array per {@link Injector} indexed by
+ * {@link InjectronInfo#serialID} where each slot is claimed individually so
+ * that subtasks on different threads do not contend. When the root closes the
+ * instances that are {@link AutoCloseable} are closed (in reverse order of
+ * creation). Thereafter subtasks no longer can resolve instances of the tree.
+ * Instances whose creation completes after the tree was closed are closed by
+ * their creator.
+ * 
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class TaskTree implements AutoCloseable {
+
+	private static final ThreadLocal<TaskTree> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Begins a new {@link TaskTree} rooted in the current thread.
+	 * 
+	 * @return the handle to {@link #close()} the tree (best used with
+	 *         try-with-resources)
+	 */
+	public static TaskTree root() {
+		TaskTree tree = new TaskTree( CURRENT.get() );
+		CURRENT.set( tree );
+		return tree;
+	}
+
+	/**
+	 * @return the {@link TaskTree} the current thread works for or
+	 *         <code>null</code> if there is none
+	 */
+	public static TaskTree current() {
+		return CURRENT.get();
+	}
+
+	private final TaskTree outer;
+	private final Thread root = Thread.currentThread();
+	/**
+	 * One slot array for each {@link Injector} (identified by its
+	 * {@link Repository} of the {@link Scoped#TASK_TREE} {@link Scope}).
+	 */
+	private final Map<Repository, AtomicReferenceArray<Object>> slots = new ConcurrentHashMap<>();
+	private final ConcurrentLinkedDeque<AutoCloseable> closeables = new ConcurrentLinkedDeque<>();
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	private TaskTree( TaskTree outer ) {
+		this.outer = outer;
+	}
+
+	/**
+	 * Forks the given subtask into the current {@link java.util.concurrent.ForkJoinPool}
+	 * (or the common pool).
+	 */
+	public <T> ForkJoinTask<T> fork( Callable<T> subtask ) {
+		return ForkJoinTask.adapt( bind( subtask ) ).fork();
+	}
+
+	/**
+	 * @return the given subtask so that it runs as part of this tree (usually
+	 *         in another thread)
+	 */
+	public Runnable bind( Runnable subtask ) {
+		return () -> {
+			TaskTree caller = enter();
+			try {
+				subtask.run();
+			} finally {
+				exit( caller );
+			}
+		};
+	}
+
+	/**
+	 * @return the given subtask so that it is called as part of this tree
+	 *         (usually in another thread)
+	 */
+	public <T> Callable<T> bind( Callable<T> subtask ) {
+		return () -> {
+			TaskTree caller = enter();
+			try {
+				return subtask.call();
+			} finally {
+				exit( caller );
+			}
+		};
+	}
+
+	boolean isClosed() {
+		return closed.get();
+	}
+
+	AtomicReferenceArray<Object> slots( Repository owner, int count ) {
+		return slots.computeIfAbsent( owner, key -> new AtomicReferenceArray<>( count ) );
+	}
+
+	/**
+	 * Registers a created instance to be closed with the tree. An instance is
+	 * registered before the state is checked so that either {@link #close()}
+	 * drains it or the creator takes it back and closes it.
+	 * 
+	 * @return false in case the tree was closed meanwhile so that the
+	 *         instance must not be used (it has been closed already)
+	 * @throws IllegalStateException
+	 *             in case closing the instance failed
+	 */
+	boolean created( Object instance ) {
+		if ( !( instance instanceof AutoCloseable ) ) {
+			return !closed.get();
+		}
+		AutoCloseable closeable = (AutoCloseable) instance;
+		closeables.push( closeable );
+		if ( closed.get() && closeables.removeFirstOccurrence( closeable ) ) {
+			try {
+				closeable.close();
+			} catch ( Exception e ) {
+				throw new IllegalStateException( "Failed to close instance of closed task tree", e );
+			}
+			return false;
+		}
+		return !closed.get();
+	}
+
+	/**
+	 * Closes the tree: all its instances are released and those that are
+	 * {@link AutoCloseable} are closed. Subtasks still running cannot resolve
+	 * instances of the tree any longer. Closing more than once has no effect.
+	 * 
+	 * @throws IllegalStateException
+	 *             in case closing any of the instances failed (after all have
+	 *             been closed)
+	 */
+	@Override
+	public void close() {
+		if ( !closed.compareAndSet( false, true ) ) {
+			return;
+		}
+		if ( Thread.currentThread() == root && CURRENT.get() == this ) {
+			exit( outer );
+		}
+		slots.clear();
+		Exception failure = null;
+		AutoCloseable closeable = closeables.poll();
+		while ( closeable != null ) {
+			try {
+				closeable.close();
+			} catch ( Exception e ) {
+				if ( failure == null ) {
+					failure = e;
+				} else {
+					failure.addSuppressed( e );
+				}
+			}
+			closeable = closeables.poll();
+		}
+		if ( failure != null ) {
+			throw new IllegalStateException( "Failed to close instances of task tree", failure );
+		}
+	}
+
+	private TaskTree enter() {
+		TaskTree caller = CURRENT.get();
+		CURRENT.set( this );
+		return caller;
+	}
+
+	private static void exit( TaskTree caller ) {
+		if ( caller == null ) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set( caller );
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.InjectronInfo;
+
+/**
+ * A unit of work (like a request) that holds the instances of the
+ * {@link Scoped#UNIT_OF_WORK} {@link Scope} from {@link #begin()} to
+ * {@link #end()}.
+ * 
+ * The instances are kept in an arena, an array indexed by
+ * {@link InjectronInfo#serialID}, that is dropped as a whole at the
+ * {@link #end()}. Instances that are {@link AutoCloseable} are closed then
+ * (in reverse order of creation). Instances leased from a
+ * {@link Scoped#pooled(int)} {@link Scope} are returned to their pool.
+ * 
+ * A {@linkplain UnitOfWork} is bound to the thread that began it. Units can
+ * be nested, the outer unit continues when the inner has ended.
+ * 
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+	private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Begins a new {@link UnitOfWork} in the current thread.
+	 * 
+	 * @return the handle to {@link #end()} the unit (best used with
+	 *         try-with-resources)
+	 */
+	public static UnitOfWork begin() {
+		UnitOfWork work = new UnitOfWork( CURRENT.get() );
+		CURRENT.set( work );
+		return work;
+	}
+
+	/**
+	 * @return the {@link UnitOfWork} of the current thread or
+	 *         <code>null</code> if there is none
+	 */
+	public static UnitOfWork current() {
+		return CURRENT.get();
+	}
+
+	private final UnitOfWork outer;
+	/**
+	 * The {@link Repository}s (one per {@link Injector}) that have an arena in
+	 * this unit. Usually there is just one.
+	 */
+	private Repository[] owners = new Repository[1];
+	private Object[][] arenas = new Object[1][];
+	private int size;
+	private List<AutoCloseable> closeables;
+
+	private UnitOfWork( UnitOfWork outer ) {
+		this.outer = outer;
+	}
+
+	Object[] arena( Repository owner, int count ) {
+		for ( int i = 0; i < size; i++ ) {
+			if ( owners[i] == owner ) {
+				return arenas[i];
+			}
+		}
+		if ( arenas == null ) {
+			throw new IllegalStateException( "Unit of work has ended." );
+		}
+		if ( size == owners.length ) {
+			owners = Arrays.copyOf( owners, size * 2 );
+			arenas = Arrays.copyOf( arenas, size * 2 );
+		}
+		Object[] arena = new Object[count];
+		owners[size] = owner;
+		arenas[size++] = arena;
+		return arena;
+	}
+
+	void created( Object instance ) {
+		if ( instance instanceof AutoCloseable ) {
+			if ( closeables == null ) {
+				closeables = new ArrayList<>();
+			}
+			closeables.add( (AutoCloseable) instance );
+		}
+	}
+
+	/**
+	 * Ends this unit: all its instances are released and those that are
+	 * {@link AutoCloseable} are closed. Ending a unit more than once has no
+	 * effect.
+	 * 
+	 * @throws IllegalStateException
+	 *             in case closing any of the instances failed (after all have
+	 *             been closed)
+	 */
+	public void end() {
+		if ( arenas == null ) {
+			return;
+		}
+		arenas = null;
+		owners = null;
+		size = 0;
+		if ( CURRENT.get() == this ) {
+			if ( outer == null ) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set( outer );
+			}
+		}
+		if ( closeables != null ) {
+			closeAll( closeables );
+			closeables = null;
+		}
+	}
+
+	@Override
+	public void close() {
+		end();
+	}
+
+	private static void closeAll( List<AutoCloseable> closeables ) {
+		Exception failure = null;
+		for ( int i = closeables.size() - 1; i >= 0; i-- ) {
+			try {
+				closeables.get( i ).close();
+			} catch ( Exception e ) {
+				if ( failure == null ) {
+					failure = e;
+				} else {
+					failure.addSuppressed( e );
+				}
+			}
+		}
+		if ( failure != null ) {
+			throw new IllegalStateException( "Failed to close instances of unit of work", failure );
+		}
+	}
+}
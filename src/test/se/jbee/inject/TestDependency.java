@@ -0,0 +1,109 @@
+package se.jbee.inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Type.raw;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.jbee.inject.UnresolvableDependency.DependencyCycle;
+import se.jbee.inject.UnresolvableDependency.UnstableDependency;
+
+public class TestDependency {
+
+	@Test
+	public void injectingIntoPushesALevel() {
+		Dependency<String> d = dependency( String.class ).injectingInto( Integer.class ).injectingInto( Long.class );
+		assertEquals( 2, d.injectionDepth() );
+		assertEquals( raw( Long.class ), d.target().type() );
+		assertEquals( raw( Long.class ), d.target( 0 ).type() );
+		assertEquals( raw( Integer.class ), d.target( 1 ).type() );
+		assertSame( Instance.ANY, d.target( 2 ) );
+	}
+
+	@Test
+	public void uninjectPopsALevel() {
+		Dependency<String> d = dependency( String.class ).injectingInto( Integer.class );
+		Dependency<String> dd = d.injectingInto( Long.class );
+		assertTrue( d.equalTo( dd.uninject() ) );
+		assertTrue( dd.uninject().uninject().isUntargeted() );
+		assertTrue( dd.uninject().uninject().uninject().isUntargeted() );
+	}
+
+	@Test
+	public void siblingsWithEqualLevelsAreEqual() {
+		Dependency<String> parent = dependency( String.class ).injectingInto( Integer.class );
+		Dependency<String> a = parent.injectingInto( Long.class );
+		Dependency<String> b = dependency( String.class ).injectingInto( Integer.class ).injectingInto( Long.class );
+		assertEquals( a, b );
+		assertEquals( a.hashCode(), b.hashCode() );
+		assertFalse( a.equals( parent.injectingInto( Float.class ) ) );
+		assertFalse( a.equals( dependency( String.class ).injectingInto( Long.class ).injectingInto( Integer.class ) ) );
+	}
+
+	@Test
+	public void iterationStartsWithOutermostLevel() {
+		Dependency<String> d = dependency( String.class ).injectingInto( Integer.class ).injectingInto( Long.class );
+		List<Type<?>> targets = new ArrayList<>();
+		for ( Injection i : d ) {
+			targets.add( i.target.type() );
+		}
+		assertEquals( 2, targets.size() );
+		assertEquals( raw( Integer.class ), targets.get( 0 ) );
+		assertEquals( raw( Long.class ), targets.get( 1 ) );
+	}
+
+	@Test
+	public void hierarchyStartsWithDirectTarget() {
+		Dependency<String> d = dependency( String.class ).injectingInto( Integer.class ).injectingInto( Long.class );
+		int level = 0;
+		for ( Dependency.Hierarchy h = d.hierarchy(); h != null; h = h.parent() ) {
+			assertSame( d.target( level++ ), h.injection().target.instance );
+		}
+		assertEquals( 2, level );
+		assertNull( dependency( String.class ).hierarchy() );
+	}
+
+	@Test ( expected = DependencyCycle.class )
+	public void injectingIntoATargetTwiceIsACycle() {
+		dependency( String.class ).injectingInto( Integer.class ).injectingInto( Long.class ).injectingInto( Integer.class );
+	}
+
+	@Test
+	public void injectingIntoSameTargetForOtherInstanceIsNoCycle() {
+		Dependency<String> d = dependency( String.class ).injectingInto( Integer.class ).injectingInto( Long.class );
+		d.named( "other" ).injectingInto( Integer.class );
+	}
+
+	@Test
+	public void injectingLessFrequentIntoMoreFrequentExpiryIsStable() {
+		dependency( String.class ).injectingInto( resource( Integer.class ), Expiry.expires( 10 ) ).injectingInto(
+				resource( Long.class ), Expiry.expires( 5 ) ).injectingInto( resource( Float.class ), Expiry.NEVER );
+	}
+
+	@Test
+	public void injectingMoreFrequentIntoLessFrequentExpiryIsUnstable() {
+		Dependency<String> d = dependency( String.class ).injectingInto( resource( Integer.class ),
+				Expiry.expires( 10 ) ).injectingInto( resource( Long.class ), Expiry.NEVER );
+		try {
+			d.injectingInto( resource( Float.class ), Expiry.expires( 20 ) );
+			fail( "Expected an unstable dependency" );
+		} catch ( UnstableDependency e ) {
+			// the outermost less frequent one is reported
+			assertTrue( e.getMessage().contains( "into " + Integer.class.getName() ) );
+			assertTrue( e.getMessage().endsWith( " 10" ) );
+		}
+	}
+
+	private static Resource<?> resource( Class<?> type ) {
+		return new Resource<>( Instance.defaultInstanceOf( raw( type ) ) );
+	}
+}
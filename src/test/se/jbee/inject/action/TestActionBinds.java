@@ -3,16 +3,28 @@ package se.jbee.inject.action;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static se.jbee.inject.Type.raw;
 import static se.jbee.inject.action.ActionModule.actionDependency;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
 import se.jbee.inject.Dependency;
 import se.jbee.inject.Injector;
 import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.bootstrap.Bindings;
 import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Invoke;
+import se.jbee.inject.bootstrap.Invoker;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.config.Globals;
 
 public class TestActionBinds {
 
@@ -75,4 +87,34 @@ public class TestActionBinds {
 			assertSame(IllegalStateException.class, e.getCause().getClass());
 		}
 	}
+
+	@Test
+	public void actionsAreInvokedByTheConfiguredInvoker() {
+		RecordingInvoker invoker = new RecordingInvoker();
+		Injector injector = Bootstrap.injector( ActionBindsModule.class,
+				Bindings.bindings( Macros.DEFAULT.invokingBy( invoker ), Inspect.DEFAULT ), Globals.STANDARD );
+		Dependency<Action<Number, Integer>> p = actionDependency(raw(Number.class), raw(Integer.class));
+		assertEquals( -3, injector.resolve( p ).exec( 3 ).intValue() );
+		assertTrue( invoker.methods.contains( "negate" ) );
+	}
+
+	private static final class RecordingInvoker implements Invoker {
+
+		final List<String> methods = new ArrayList<>();
+
+		RecordingInvoker() {
+			// make visible
+		}
+
+		@Override
+		public <T> Invocation<T> constructor( Constructor<T> constructor ) {
+			return Invoke.REFLECTION.constructor( constructor );
+		}
+
+		@Override
+		public Invocation<?> method( Method method ) {
+			methods.add( method.getName() );
+			return Invoke.REFLECTION.method( method );
+		}
+	}
 }
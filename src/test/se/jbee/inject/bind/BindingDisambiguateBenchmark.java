@@ -0,0 +1,91 @@
+package se.jbee.inject.bind;
+
+import static se.jbee.inject.Instance.instance;
+import static se.jbee.inject.Name.named;
+import static se.jbee.inject.Type.raw;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import se.jbee.inject.Resource;
+import se.jbee.inject.Source;
+import se.jbee.inject.bootstrap.Binding;
+import se.jbee.inject.bootstrap.BindingType;
+import se.jbee.inject.bootstrap.Supply;
+import se.jbee.inject.container.Inject;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Measures {@link Binding#disambiguate(Binding[])} and the assembly of a
+ * container from the result for a growing number of bindings. For comparison
+ * the bindings are also sorted using {@link Binding#compareTo(Binding)}
+ * which computes the canonical names of the raw types for each comparison
+ * (this can fail for larger numbers as precision is just a partial order).
+ * 
+ * This is not a test. It is run manually with the test classes on the
+ * class-path. Arguments are the numbers of bindings (default: 1000 10000
+ * 100000).
+ */
+public final class BindingDisambiguateBenchmark {
+
+	private static final Class<?>[] TYPES = { String.class, Integer.class, Long.class, Double.class,
+			Float.class, Short.class, Byte.class, Character.class, Boolean.class, StringBuilder.class,
+			java.util.ArrayList.class, java.util.LinkedList.class, java.util.HashMap.class,
+			java.util.TreeMap.class, java.util.HashSet.class, java.util.TreeSet.class,
+			java.math.BigInteger.class, java.math.BigDecimal.class, java.io.File.class,
+			java.net.URI.class, java.util.UUID.class, java.util.Date.class, java.util.Locale.class,
+			Thread.class, Object.class, Number.class, CharSequence.class, Runnable.class };
+
+	private static final int ROUNDS = 5;
+
+	public static void main( String[] args ) {
+		int[] sizes = args.length == 0
+			? new int[] { 1000, 10_000, 100_000 }
+			: new int[args.length];
+		for ( int i = 0; i < args.length; i++ ) {
+			sizes[i] = Integer.parseInt( args[i] );
+		}
+		for ( int size : sizes ) {
+			Binding<?>[] bindings = bindings( size );
+			long compareTo = Long.MAX_VALUE;
+			long disambiguate = Long.MAX_VALUE;
+			long assembly = Long.MAX_VALUE;
+			for ( int r = 0; r < ROUNDS; r++ ) {
+				Binding<?>[] copy = bindings.clone();
+				long start = System.nanoTime();
+				try {
+					Arrays.sort( copy );
+					compareTo = Math.min( compareTo, System.nanoTime() - start );
+				} catch ( IllegalArgumentException e ) {
+					// precision is a partial order, TimSort may detect that
+				}
+				copy = bindings.clone();
+				start = System.nanoTime();
+				Binding<?>[] unique = Binding.disambiguate( copy );
+				disambiguate = Math.min( disambiguate, System.nanoTime() - start );
+				start = System.nanoTime();
+				Inject.container( unique );
+				assembly = Math.min( assembly, System.nanoTime() - start );
+			}
+			System.out.printf( "%7d bindings: sort by compareTo %s, disambiguate %5d ms, container %5d ms%n",
+					size, compareTo == Long.MAX_VALUE ? "failed" : ( compareTo / 1000000L ) + " ms",
+					disambiguate / 1000000L, assembly / 1000000L );
+		}
+	}
+
+	@SuppressWarnings ( { "unchecked", "rawtypes" } )
+	private static Binding<?>[] bindings( int size ) {
+		Binding<?>[] res = new Binding<?>[size];
+		Source source = Source.source( BindingDisambiguateBenchmark.class );
+		for ( int i = 0; i < size; i++ ) {
+			Class type = TYPES[i % TYPES.length];
+			res[i] = Binding.binding( new Resource( instance( named( "n" + i ), raw( type ) ) ),
+					BindingType.PREDEFINED, Supply.constant( null ), Scoped.APPLICATION, source );
+		}
+		List<Binding<?>> shuffled = Arrays.asList( res );
+		Collections.shuffle( shuffled, new Random( 42 ) );
+		return res;
+	}
+}
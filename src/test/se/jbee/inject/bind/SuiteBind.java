@@ -17,7 +17,15 @@ import org.junit.runners.Suite.SuiteClasses;
 		TestPrimitiveArrayBinds.class, TestMultipleOptionChoicesBinds.class, TestMacroBinds.class,
 		TestBootstrapper.class, TestLinker.class, TestIssue1.class, TestDecoratorBinds.class, 
 		TestBinderModule.class, TestExample1Binds.class, TestPluginBinds.class, TestMockingBinds.class, 
-		TestLambdaBinds.class } )
+		TestLambdaBinds.class, TestResolutionCacheBinds.class,
+		TestCompiledBinds.class, TestInvokerBinds.class,
+		TestSupertypeIndexBinds.class, TestArrayCacheBinds.class,
+		TestCarrierScopeBinds.class, TestUnitOfWorkScopeBinds.class,
+		TestRefreshAheadScopeBinds.class,
+		TestPooledScopeBinds.class, TestReferenceScopeBinds.class,
+		TestThreadScopeBinds.class, TestTaskTreeScopeBinds.class,
+		TestGenerationScopeBinds.class, TestParallelEagerSingletonsBinds.class,
+		TestWarmUpBinds.class, TestSnapshotBinds.class } )
 public class SuiteBind {
 	// all tests in the bind package
 }
@@ -0,0 +1,147 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.container.Typecast.listTypeOf;
+import static se.jbee.inject.container.Typecast.setTypeOf;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Type;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.BootstrapperBundle;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests that arrays, {@link List}s and {@link Set}s of elements that never
+ * expire are resolved once while those of expiring elements are resolved each
+ * time.
+ */
+public class TestArrayCacheBinds {
+
+	private static class ArrayCacheBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			multibind( Integer.class ).to( 1 );
+			multibind( Integer.class ).to( 2 );
+			per( Scoped.INJECTION ).multibind( Foo.class ).toConstructor();
+		}
+	}
+
+	private static class ArrayCacheBindsBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install( BuildinBundle.LIST, BuildinBundle.SET );
+			install( ArrayCacheBindsModule.class );
+		}
+	}
+
+	private static class UpperBoundArrayCacheBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			multibind( listTypeOf( Integer.class ) ).to( Arrays.asList( 1 ) );
+			multibind( listTypeOf( Number.class ) ).to( Arrays.<Number>asList( 2.0 ) );
+		}
+	}
+
+	private static final Type<List<Number>[]> ARRAY_OF_LISTS_OF_NUMBERS = listTypeOf( Number.class ).addArrayDimension();
+	@SuppressWarnings ( "unchecked" )
+	private static final Type<List<? extends Number>[]> ARRAY_OF_LISTS_OF_SUBTYPES_OF_NUMBER = (Type<List<? extends Number>[]>) (Type<?>) listTypeOf(
+			Number.class ).parametizedAsUpperBounds().addArrayDimension();
+
+	private static class Foo {
+
+		Foo() {
+			// make visible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( ArrayCacheBindsBundle.class );
+
+	@Test
+	public void thatArraysOfNeverExpiringElementsAreCopiesOfTheSameElements() {
+		Integer[] first = injector.resolve( dependency( Integer[].class ) );
+		Integer[] second = injector.resolve( dependency( Integer[].class ) );
+		assertNotSame( first, second );
+		assertEquals( 2, second.length );
+		for ( int i = 0; i < first.length; i++ ) {
+			assertSame( first[i], second[i] );
+		}
+		Integer element = first[0];
+		first[0] = 42;
+		assertSame( element, injector.resolve( dependency( Integer[].class ) )[0] );
+	}
+
+	@Test
+	public void thatArraysOfExpiringElementsAreResolvedEachTime() {
+		Foo[] first = injector.resolve( dependency( Foo[].class ) );
+		Foo[] second = injector.resolve( dependency( Foo[].class ) );
+		assertEquals( 1, first.length );
+		assertNotSame( first[0], second[0] );
+	}
+
+	/**
+	 * The bridges copy the cached array so the list and set are the caller's
+	 * own, just like before arrays have been cached.
+	 */
+	@Test
+	public void thatListsAreModifiableWithoutChangingTheCachedArray() {
+		List<Integer> list = injector.resolve( dependency( listTypeOf( Integer.class ) ) );
+		int first = list.get( 0 );
+		list.set( 0, first + 1 );
+		assertEquals( first, injector.resolve( dependency( Integer[].class ) )[0].intValue() );
+	}
+
+	@Test
+	public void thatSetsAreModifiableWithoutChangingTheCachedArray() {
+		Set<Integer> set = injector.resolve( dependency( setTypeOf( Integer.class ) ) );
+		int size = set.size();
+		set.add( 42 );
+		set.add( 43 );
+		assertEquals( size, injector.resolve( dependency( Integer[].class ) ).length );
+	}
+
+	@Test
+	public void thatCachedArraysRespectUpperBoundsWhenWildcardIsResolvedFirst() {
+		Injector injector = Bootstrap.injector( UpperBoundArrayCacheBindsModule.class );
+		for ( int i = 0; i < 2; i++ ) {
+			assertListsOfSubtypesOfNumber( injector );
+			assertListsOfNumbers( injector );
+		}
+	}
+
+	@Test
+	public void thatCachedArraysRespectUpperBoundsWhenExactTypeIsResolvedFirst() {
+		Injector injector = Bootstrap.injector( UpperBoundArrayCacheBindsModule.class );
+		for ( int i = 0; i < 2; i++ ) {
+			assertListsOfNumbers( injector );
+			assertListsOfSubtypesOfNumber( injector );
+		}
+	}
+
+	private static void assertListsOfSubtypesOfNumber( Injector injector ) {
+		List<? extends Number>[] lists = injector.resolve( dependency( ARRAY_OF_LISTS_OF_SUBTYPES_OF_NUMBER ) );
+		assertEquals( 2, lists.length );
+		assertEquals( Arrays.asList( 1 ), lists[0] );
+		assertEquals( Arrays.asList( 2.0 ), lists[1] );
+	}
+
+	private static void assertListsOfNumbers( Injector injector ) {
+		List<Number>[] lists = injector.resolve( dependency( ARRAY_OF_LISTS_OF_NUMBERS ) );
+		assertEquals( 1, lists.length );
+		assertEquals( Arrays.asList( 2.0 ), lists[0] );
+	}
+}
@@ -1,19 +1,33 @@
 package se.jbee.inject.bind;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static se.jbee.inject.DeclarationType.EXPLICIT;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 
 import se.jbee.inject.DeclarationType;
+import se.jbee.inject.Instance;
+import se.jbee.inject.Name;
+import se.jbee.inject.Resource;
+import se.jbee.inject.Source;
+import se.jbee.inject.Type;
 import se.jbee.inject.bootstrap.Binding;
+import se.jbee.inject.bootstrap.BindingType;
 import se.jbee.inject.bootstrap.Bindings;
 import se.jbee.inject.bootstrap.Bootstrap;
 import se.jbee.inject.bootstrap.BootstrapperBundle;
 import se.jbee.inject.bootstrap.Inspect;
 import se.jbee.inject.bootstrap.Macros;
 import se.jbee.inject.bootstrap.Module;
+import se.jbee.inject.bootstrap.Supply;
 import se.jbee.inject.config.Globals;
+import se.jbee.inject.container.Scoped;
 
 /**
  * Making sure the general functions of the {@link BinderModule} work as
@@ -51,6 +65,88 @@ public class TestBinderModule {
 
 	}
 
+	static class TestBinderModuleModule3 extends BinderModule {
+
+		@Override
+		protected void declare() {
+			multibind(Number.class).to(4);
+			multibind(Number.class).to(5L);
+			bind(CharSequence.class).to(String.class);
+			construct(StringBuilder.class);
+		}
+
+	}
+
+	static class TestBinderModuleParallelBundle extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install(TestBinderModuleModule1.class);
+			install(TestBinderModuleModule3.class);
+			install(TestBinderModuleModule2.class);
+		}
+
+	}
+
+	@Test
+	public void thatParallelDeclarationYieldsSameBindingsAsSequential() {
+		Binding<?>[] sequential = Bindings.bindings(Macros.DEFAULT, Inspect.DEFAULT).declareFrom(modules());
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		Binding<?>[] parallel;
+		try {
+			parallel = Bindings.bindings(Macros.DEFAULT, Inspect.DEFAULT).parallel(executor).declareFrom(modules());
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(sequential.length, parallel.length);
+		for (int i = 0; i < sequential.length; i++) {
+			assertEquals(sequential[i].toString(), parallel[i].toString());
+			assertEquals(sequential[i].source.toString(), parallel[i].source.toString());
+			assertEquals(sequential[i].supplier.toString(), parallel[i].supplier.toString());
+		}
+		assertEquals(Binding.disambiguate(sequential).length, Binding.disambiguate(parallel).length);
+	}
+
+	@Test
+	public void thatManyNamedBindingsCanBeDisambiguated() {
+		int n = 2000;
+		Binding<?>[] bindings = new Binding<?>[n];
+		Source source = Source.source(TestBinderModule.class);
+		for (int i = 0; i < n; i++) {
+			Resource<Integer> resource = new Resource<>(Instance.instance(Name.named("n" + ((i * 7919) % n)), Type.raw(Integer.class)));
+			bindings[i] = Binding.binding(resource, BindingType.PREDEFINED, Supply.constant(i), Scoped.APPLICATION, source);
+		}
+		Binding<?>[] unique = Binding.disambiguate(bindings);
+		assertEquals(n, unique.length);
+		Set<Object> values = new HashSet<>();
+		for (Binding<?> b : unique) {
+			assertTrue(values.add(b.supplier.supply(null, null)));
+		}
+	}
+
+	static class TestBinderModuleErroneousModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			throw new AssertionError("failing on purpose");
+		}
+
+	}
+
+	@Test(expected = AssertionError.class)
+	public void thatParallelDeclarationRethrowsErrorsAsSequential() {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			Bindings.bindings(Macros.DEFAULT, Inspect.DEFAULT).parallel(executor).declareFrom(new TestBinderModuleErroneousModule());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static Module[] modules() {
+		return Bootstrap.modulariser(Globals.STANDARD).modularise(TestBinderModuleParallelBundle.class);
+	}
+
 	@Test
 	public void thatBindingSourceReflectsTheOrigin() {
 		Binding<?>[] bindings = Bootstrap.bindings(TestBinderModuleBundle.class, Bindings.bindings(Macros.DEFAULT, Inspect.DEFAULT), Globals.STANDARD);
@@ -0,0 +1,87 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.OutOfScope;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Carrier;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests that instances in the {@link Scoped#CARRIER} scope are shared within
+ * a {@link Carrier} (also by forked tasks) but not between {@link Carrier}s.
+ */
+public class TestCarrierScopeBinds {
+
+	private static class CarrierScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.CARRIER ).construct( Foo.class );
+		}
+	}
+
+	private static class Foo {
+
+		Foo() {
+			// make visible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( CarrierScopeBindsModule.class );
+
+	@Test
+	public void thatInstancesAreSharedWithinACarrier() throws Exception {
+		Carrier carrier = Carrier.carrier();
+		Foo foo = carrier.call( () -> injector.resolve( dependency( Foo.class ) ) );
+		assertSame( foo, carrier.call( () -> injector.resolve( dependency( Foo.class ) ) ) );
+	}
+
+	@Test
+	public void thatInstancesAreSharedWithForkedTasks() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool( 2 );
+		try {
+			Carrier carrier = Carrier.carrier();
+			carrier.run( () -> {
+				Foo foo = injector.resolve( dependency( Foo.class ) );
+				try {
+					assertSame( foo, pool.submit( carrier.bind( () -> injector.resolve( dependency( Foo.class ) ) ) ).get( 5, TimeUnit.SECONDS ) );
+				} catch ( Exception e ) {
+					throw new AssertionError( e );
+				}
+			} );
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void thatInstancesAreNotSharedBetweenCarriers() throws Exception {
+		Foo foo1 = Carrier.carrier().call( () -> injector.resolve( dependency( Foo.class ) ) );
+		Foo foo2 = Carrier.carrier().call( () -> injector.resolve( dependency( Foo.class ) ) );
+		assertNotSame( foo1, foo2 );
+	}
+
+	@Test
+	public void thatInstancesAreNotSharedBetweenInjectors() throws Exception {
+		Injector other = Bootstrap.injector( CarrierScopeBindsModule.class );
+		Carrier carrier = Carrier.carrier();
+		assertNotSame( carrier.call( () -> injector.resolve( dependency( Foo.class ) ) ),
+				carrier.call( () -> other.resolve( dependency( Foo.class ) ) ) );
+	}
+
+	@Test ( expected = OutOfScope.class )
+	public void thatInstancesCannotBeResolvedOutsideOfACarrier() {
+		injector.resolve( dependency( Foo.class ) );
+	}
+}
@@ -0,0 +1,95 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Inject;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests that compiling the plans of an {@link Injector} ahead of time does
+ * neither create instances nor change the outcome of the resolution.
+ */
+public class TestCompiledBinds {
+
+	static final AtomicInteger CREATED = new AtomicInteger();
+
+	private static class CompiledBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.INJECTION ).construct( Foo.class );
+			per( Scoped.INJECTION ).construct( Bar.class );
+			construct( Baz.class );
+			injectingInto( Bar.class ).bind( String.class ).to( "bar" );
+			bind( String.class ).to( "elsewhere" );
+		}
+	}
+
+	private static class Foo {
+
+		final Bar bar;
+		final Baz baz;
+
+		@SuppressWarnings ( "unused" )
+		Foo( Bar bar, Baz baz ) {
+			this.bar = bar;
+			this.baz = baz;
+			CREATED.incrementAndGet();
+		}
+	}
+
+	private static class Bar {
+
+		final String name;
+
+		@SuppressWarnings ( "unused" )
+		Bar( String name ) {
+			this.name = name;
+			CREATED.incrementAndGet();
+		}
+	}
+
+	private static class Baz {
+
+		final String name;
+
+		@SuppressWarnings ( "unused" )
+		Baz( String name ) {
+			this.name = name;
+			CREATED.incrementAndGet();
+		}
+	}
+
+	@Test
+	public void thatCompilingDoesNotCreateInstances() {
+		Injector injector = Bootstrap.injector( CompiledBindsModule.class );
+		int before = CREATED.get();
+		assertSame( injector, Inject.compile( injector ) );
+		assertEquals( before, CREATED.get() );
+	}
+
+	@Test
+	public void thatCompiledInjectorResolvesTheSameGraph() {
+		Injector injector = Inject.compile( Bootstrap.injector( CompiledBindsModule.class ) );
+		Foo foo = injector.resolve( dependency( Foo.class ) );
+		assertNotNull( foo );
+		assertEquals( "bar", foo.bar.name );
+		assertEquals( "elsewhere", foo.baz.name );
+		Foo foo2 = injector.resolve( dependency( Foo.class ) );
+		assertNotSame( foo, foo2 );
+		assertNotSame( foo.bar, foo2.bar );
+		assertSame( foo.baz, foo2.baz );
+		assertEquals( "elsewhere", injector.resolve( dependency( Baz.class ) ).name );
+	}
+}
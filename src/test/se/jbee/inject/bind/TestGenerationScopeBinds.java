@@ -0,0 +1,165 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.UnstableDependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Generation;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests that instances in the {@link Scoped#GENERATION} scope are versioned
+ * by {@link Generation}s.
+ */
+public class TestGenerationScopeBinds {
+
+	private static class GenerationScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.GENERATION ).construct( Config.class );
+			per( Scoped.GENERATION ).construct( Rates.class );
+			per( Scoped.GENERATION ).construct( Client.class );
+			per( Scoped.APPLICATION ).construct( Service.class );
+		}
+	}
+
+	private static class Config {
+
+		Config() {
+			// make visible
+		}
+	}
+
+	private static class Rates {
+
+		Rates() {
+			// make visible
+		}
+	}
+
+	private static class Client {
+
+		final Config config;
+
+		@SuppressWarnings ( "unused" )
+		Client( Config config ) {
+			this.config = config;
+		}
+	}
+
+	private static class Service {
+
+		@SuppressWarnings ( "unused" )
+		Service( Config config ) {
+			// not possible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( GenerationScopeBindsModule.class );
+
+	@Test
+	public void thatInstancesAreSharedWithinAGeneration() {
+		Config config = injector.resolve( dependency( Config.class ) );
+		assertSame( config, injector.resolve( dependency( Config.class ) ) );
+	}
+
+	@Test
+	public void thatPublishingAllRenewsAllInstances() {
+		Config config = injector.resolve( dependency( Config.class ) );
+		Rates rates = injector.resolve( dependency( Rates.class ) );
+		long number = Generation.latest( injector ).number();
+		assertEquals( number + 1, Generation.publishAll( injector ).number() );
+		assertNotSame( config, injector.resolve( dependency( Config.class ) ) );
+		assertNotSame( rates, injector.resolve( dependency( Rates.class ) ) );
+	}
+
+	@Test
+	public void thatUnchangedInstancesAreReusedByTheNextGeneration() {
+		Config config = injector.resolve( dependency( Config.class ) );
+		Rates rates = injector.resolve( dependency( Rates.class ) );
+		Generation.publish( injector, Config.class );
+		Config renewed = injector.resolve( dependency( Config.class ) );
+		assertNotSame( config, renewed );
+		assertSame( renewed, injector.resolve( dependency( Config.class ) ) );
+		assertSame( rates, injector.resolve( dependency( Rates.class ) ) );
+	}
+
+	@Test
+	public void thatReadersSeeTheGenerationTheyStartedIn() {
+		Config config = injector.resolve( dependency( Config.class ) );
+		try ( Generation.Reading reading = Generation.read( injector ) ) {
+			Rates rates = injector.resolve( dependency( Rates.class ) );
+			Generation.publishAll( injector );
+			assertSame( config, injector.resolve( dependency( Config.class ) ) );
+			assertSame( rates, injector.resolve( dependency( Rates.class ) ) );
+			assertNotSame( reading.generation(), Generation.latest( injector ) );
+		}
+		assertNotSame( config, injector.resolve( dependency( Config.class ) ) );
+	}
+
+	@Test
+	public void thatInstancesAreNotSharedBetweenInjectors() {
+		Injector other = Bootstrap.injector( GenerationScopeBindsModule.class );
+		assertNotSame( injector.resolve( dependency( Config.class ) ),
+				other.resolve( dependency( Config.class ) ) );
+	}
+
+	@Test
+	public void thatDependentsOfChangedTypesAreRenewed() {
+		Client client = injector.resolve( dependency( Client.class ) );
+		Rates rates = injector.resolve( dependency( Rates.class ) );
+		Generation.publish( injector, Config.class );
+		Client renewed = injector.resolve( dependency( Client.class ) );
+		assertNotSame( client, renewed );
+		assertNotSame( client.config, renewed.config );
+		assertSame( injector.resolve( dependency( Config.class ) ), renewed.config );
+		assertSame( rates, injector.resolve( dependency( Rates.class ) ) );
+	}
+
+	@Test
+	public void thatNextGenerationDoesNotCreateInstancesForThePreviousOne() throws Exception {
+		Config config = injector.resolve( dependency( Config.class ) );
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try ( Generation.Reading reading = Generation.read( injector ) ) {
+			Generation.publish( injector, Config.class );
+			Client newer = resolveIn( executor, Client.class );
+			assertNotSame( config, newer.config );
+			Client older = injector.resolve( dependency( Client.class ) );
+			assertSame( config, older.config );
+			assertNotSame( newer, older );
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void thatGenerationsAreIndependentBetweenInjectors() {
+		Injector other = Bootstrap.injector( GenerationScopeBindsModule.class );
+		Config config = injector.resolve( dependency( Config.class ) );
+		long number = Generation.latest( injector ).number();
+		Generation.publishAll( other );
+		assertEquals( number, Generation.latest( injector ).number() );
+		assertSame( config, injector.resolve( dependency( Config.class ) ) );
+	}
+
+	private <T> T resolveIn( ExecutorService executor, Class<T> type ) throws InterruptedException, ExecutionException {
+		return executor.submit( () -> injector.resolve( dependency( type ) ) ).get();
+	}
+
+	@Test ( expected = UnstableDependency.class )
+	public void thatInstancesCannotBeInjectedIntoApplicationScopedInstances() {
+		injector.resolve( dependency( Service.class ) );
+	}
+}
@@ -0,0 +1,195 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.bootstrap.Inspect.all;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Invoke;
+import se.jbee.inject.bootstrap.Invoker;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.config.Globals;
+
+/**
+ * Tests that the different {@link Invoker}s construct and call factory
+ * methods with the same results. {@link Invoke#REFLECTION} is the reference.
+ * 
+ * Most types are public so that {@link Invoke#GENERATED} does generate
+ * classes, {@link Bar} is not to test the fall-back.
+ */
+public class TestInvokerBinds {
+
+	private static class InvokerBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( int.class ).to( 42 );
+			construct( Foo.class );
+			construct( Bar.class );
+			construct( Failing.class );
+			construct( Erroneous.class );
+			bind( all().methods() ).in( Factory.class );
+		}
+	}
+
+	public static class Foo {
+
+		final int value;
+
+		public Foo( int value ) {
+			this.value = value;
+		}
+	}
+
+	private static class Bar {
+
+		final Foo foo;
+
+		@SuppressWarnings ( "unused" )
+		Bar( Foo foo ) {
+			this.foo = foo;
+		}
+	}
+
+	public static class Failing {
+
+		static final IllegalStateException FAILURE = new IllegalStateException( "failing" );
+
+		public Failing() {
+			throw FAILURE;
+		}
+	}
+
+	public static class Erroneous {
+
+		static final Error ERROR = new ExceptionInInitializerError( "erroneous" );
+
+		public Erroneous() {
+			throw ERROR;
+		}
+	}
+
+	public static class Factory {
+
+		public String instanceFactoryMethod( Foo foo ) {
+			return "foo" + foo.value;
+		}
+
+		public static long staticFactoryMethod( int value ) {
+			return value * 2L;
+		}
+	}
+
+	@Test
+	public void thatReflectionInvokerConstructsAndCallsMethods() {
+		assertInvokes( Invoke.REFLECTION );
+	}
+
+	@Test
+	public void thatMethodHandleInvokerConstructsAndCallsMethods() {
+		assertInvokes( Invoke.METHOD_HANDLES );
+	}
+
+	@Test
+	public void thatGeneratedInvokerConstructsAndCallsMethods() {
+		assertInvokes( Invoke.GENERATED );
+	}
+
+	@Test
+	public void thatGeneratedInvokerCallsConstructorDirectly() throws Exception {
+		Foo foo = Invoke.GENERATED.constructor( Foo.class.getConstructor( int.class ) ).invoke( null, new Object[] { 7 } );
+		assertEquals( 7, foo.value );
+		Object res = Invoke.GENERATED.method( Factory.class.getMethod( "instanceFactoryMethod", Foo.class ) ).invoke( new Factory(), new Object[] { foo } );
+		assertEquals( "foo7", res );
+	}
+
+	@Test
+	public void thatGeneratedInvokerGeneratesForPublicMembersOfPublicTypes() throws Exception {
+		assertEquals( "GeneratedInvocation", nameOf( Invoke.GENERATED.constructor( Foo.class.getConstructor( int.class ) ) ) );
+		assertEquals( "GeneratedInvocation", nameOf( Invoke.GENERATED.method( Factory.class.getMethod( "instanceFactoryMethod", Foo.class ) ) ) );
+		assertEquals( "GeneratedInvocation", nameOf( Invoke.GENERATED.method( Factory.class.getMethod( "staticFactoryMethod", int.class ) ) ) );
+		assertFalse( "GeneratedInvocation".equals( nameOf( Invoke.GENERATED.constructor( Bar.class.getDeclaredConstructor( Foo.class ) ) ) ) );
+	}
+
+	@Test
+	public void thatReflectionInvokerWrapsExceptions() {
+		assertWrapsExceptions( Invoke.REFLECTION );
+	}
+
+	@Test
+	public void thatMethodHandleInvokerWrapsExceptions() {
+		assertWrapsExceptions( Invoke.METHOD_HANDLES );
+	}
+
+	@Test
+	public void thatGeneratedInvokerWrapsExceptions() {
+		assertWrapsExceptions( Invoke.GENERATED );
+	}
+
+	@Test
+	public void thatReflectionInvokerWrapsErrors() {
+		assertWrapsErrors( Invoke.REFLECTION );
+	}
+
+	@Test
+	public void thatMethodHandleInvokerWrapsErrors() {
+		assertWrapsErrors( Invoke.METHOD_HANDLES );
+	}
+
+	@Test
+	public void thatGeneratedInvokerWrapsErrors() {
+		assertWrapsErrors( Invoke.GENERATED );
+	}
+
+	private static void assertInvokes( Invoker invoker ) {
+		Injector injector = injector( invoker );
+		assertEquals( 42, injector.resolve( dependency( Foo.class ) ).value );
+		assertEquals( 42, injector.resolve( dependency( Bar.class ) ).foo.value );
+		assertEquals( "foo42", injector.resolve( dependency( String.class ) ) );
+		assertEquals( 84L, injector.resolve( dependency( long.class ) ).longValue() );
+	}
+
+	private static void assertWrapsExceptions( Invoker invoker ) {
+		try {
+			injector( invoker ).resolve( dependency( Failing.class ) );
+			fail( "Expected a failure" );
+		} catch ( SupplyFailed e ) {
+			assertSame( Failing.FAILURE, e.getCause() );
+		}
+	}
+
+	private static void assertWrapsErrors( Invoker invoker ) {
+		try {
+			injector( invoker ).resolve( dependency( Erroneous.class ) );
+			fail( "Expected a failure" );
+		} catch ( SupplyFailed e ) {
+			Throwable cause = e.getCause();
+			if ( cause instanceof InvocationTargetException ) {
+				cause = cause.getCause(); // reflection does not unwrap errors
+			}
+			assertSame( Erroneous.ERROR, cause );
+		}
+	}
+
+	private static String nameOf( Invoker.Invocation<?> invocation ) {
+		return invocation.getClass().getSimpleName();
+	}
+
+	private static Injector injector( Invoker invoker ) {
+		return Bootstrap.injector( InvokerBindsModule.class,
+				Bindings.bindings( Macros.DEFAULT.invokingBy( invoker ), Inspect.DEFAULT ),
+				Globals.STANDARD );
+	}
+}
@@ -0,0 +1,212 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.SingletonTimings;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests {@link Bootstrap#eagerSingletons(Injector, java.util.concurrent.Executor)}
+ * creating independent singletons in parallel and dependent ones in order.
+ */
+public class TestParallelEagerSingletonsBinds {
+
+	static final List<Class<?>> CREATED = Collections.synchronizedList( new ArrayList<>() );
+	static final CountDownLatch BOTH_STARTED = new CountDownLatch( 2 );
+
+	private static class ParallelEagerSingletonsBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.APPLICATION ).construct( Root.class );
+			per( Scoped.APPLICATION ).construct( Left.class );
+			per( Scoped.APPLICATION ).construct( Right.class );
+			per( Scoped.APPLICATION ).construct( Leaf.class );
+			per( Scoped.APPLICATION ).construct( Indirect.class );
+			per( Scoped.DEPENDENCY_TYPE ).construct( Prototype.class );
+		}
+	}
+
+	private static class Leaf {
+
+		Leaf() {
+			CREATED.add( Leaf.class );
+		}
+	}
+
+	private static class Left {
+
+		@SuppressWarnings ( "unused" )
+		Left( Leaf leaf ) throws InterruptedException {
+			BOTH_STARTED.countDown();
+			BOTH_STARTED.await( 5, TimeUnit.SECONDS );
+			CREATED.add( Left.class );
+		}
+	}
+
+	private static class Right {
+
+		@SuppressWarnings ( "unused" )
+		Right( Leaf leaf ) throws InterruptedException {
+			BOTH_STARTED.countDown();
+			BOTH_STARTED.await( 5, TimeUnit.SECONDS );
+			CREATED.add( Right.class );
+		}
+	}
+
+	private static class Root {
+
+		@SuppressWarnings ( "unused" )
+		Root( Left left, Right right ) {
+			CREATED.add( Root.class );
+		}
+	}
+
+	private static class Prototype {
+
+		@SuppressWarnings ( "unused" )
+		Prototype( Root root ) {
+			// just a link
+		}
+	}
+
+	private static class Indirect {
+
+		@SuppressWarnings ( "unused" )
+		Indirect( Prototype prototype ) {
+			CREATED.add( Indirect.class );
+		}
+	}
+
+	private static class FailingEagerSingletonsBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.APPLICATION ).construct( Base.class );
+			per( Scoped.APPLICATION ).construct( Failing.class );
+		}
+	}
+
+	private static class Base {
+
+		Base() {
+			// just a singleton
+		}
+	}
+
+	private static class Failing {
+
+		@SuppressWarnings ( "unused" )
+		Failing( Base base ) {
+			throw new AssertionError( "failing on purpose" );
+		}
+	}
+
+	private static class ChainedEagerSingletonsBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.APPLICATION ).construct( Base.class );
+			per( Scoped.APPLICATION ).construct( Chained.class );
+		}
+	}
+
+	private static class Chained {
+
+		@SuppressWarnings ( "unused" )
+		Chained( Base base ) {
+			// just a link
+		}
+	}
+
+	@Test
+	public void thatSingletonsAreCreatedInDependencyOrderAndIndependentInParallel() {
+		Injector injector = Bootstrap.injector( ParallelEagerSingletonsBindsModule.class );
+		ExecutorService executor = Executors.newFixedThreadPool( 4 );
+		SingletonTimings timings;
+		try {
+			timings = Bootstrap.eagerSingletons( injector, executor );
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals( "left and right did not run in parallel", 0, BOTH_STARTED.getCount() );
+		assertEquals( 5, CREATED.size() );
+		assertTrue( CREATED.indexOf( Leaf.class ) < CREATED.indexOf( Left.class ) );
+		assertTrue( CREATED.indexOf( Leaf.class ) < CREATED.indexOf( Right.class ) );
+		assertTrue( CREATED.indexOf( Left.class ) < CREATED.indexOf( Root.class ) );
+		assertTrue( CREATED.indexOf( Right.class ) < CREATED.indexOf( Root.class ) );
+		assertTrue( CREATED.indexOf( Root.class ) < CREATED.indexOf( Indirect.class ) );
+		for ( Injectron<?> i : injector.resolve( dependency( Injectron[].class ) ) ) {
+			if ( i.info().expiry.isNever() ) {
+				assertTrue( timings.nanos( i ) >= 0L );
+			}
+		}
+		assertTrue( timings.toString().startsWith( timings.injectrons.length + " singletons in " ) );
+	}
+
+	@Test ( timeout = 5000 )
+	public void thatErrorsOfSingletonsAreThrownAfterAllHaveBeenAttempted() {
+		Injector injector = Bootstrap.injector( FailingEagerSingletonsBindsModule.class );
+		ExecutorService executor = Executors.newFixedThreadPool( 2 );
+		try {
+			Bootstrap.eagerSingletons( injector, executor );
+			fail( "Expected the error of the failing singleton" );
+		} catch ( Throwable e ) {
+			assertTrue( "not caused by the error: " + e, causedBy( e, AssertionError.class ) );
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test ( timeout = 5000 )
+	public void thatRejectedSingletonsAreReportedAndTheirDependentsStillCreated() {
+		Injector injector = Bootstrap.injector( ChainedEagerSingletonsBindsModule.class );
+		AtomicInteger accepted = new AtomicInteger();
+		Executor rejecting = command -> {
+			if ( accepted.getAndIncrement() > 0 ) {
+				throw new RejectedExecutionException();
+			}
+			command.run();
+		};
+		try {
+			Bootstrap.eagerSingletons( injector, rejecting );
+			fail( "Expected the rejection to be reported" );
+		} catch ( RejectedExecutionException e ) {
+			assertEquals( 2, accepted.get() );
+		}
+		assertNotNull( injector.resolve( dependency( Chained.class ) ) );
+	}
+
+	private static boolean causedBy( Throwable e, Class<? extends Throwable> cause ) {
+		while ( e != null ) {
+			if ( cause.isInstance( e ) ) {
+				return true;
+			}
+			e = e.getCause();
+		}
+		return false;
+	}
+}
@@ -0,0 +1,131 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.OutOfScope;
+import se.jbee.inject.UnresolvableDependency.UnstableDependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.PoolStats;
+import se.jbee.inject.container.Scope;
+import se.jbee.inject.container.Scoped;
+import se.jbee.inject.container.UnitOfWork;
+
+/**
+ * Tests that instances in a {@link Scoped#pooled(int)} scope are leased to a
+ * {@link UnitOfWork} and returned to the pool when it ends.
+ */
+public class TestPooledScopeBinds {
+
+	private static class PooledScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( POOLED ).construct( Parser.class );
+			per( Scoped.APPLICATION ).construct( Service.class );
+		}
+	}
+
+	private static class Parser implements AutoCloseable {
+
+		boolean closed;
+
+		Parser() {
+			// make visible
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	private static class Service {
+
+		@SuppressWarnings ( "unused" )
+		Service( Parser parser ) {
+			// not possible
+		}
+	}
+
+	static final Scope POOLED = Scoped.pooled( 1 );
+
+	private final Injector injector = Bootstrap.injector( PooledScopeBindsModule.class );
+	private final PoolStats before = Scoped.poolStats( POOLED );
+
+	@Test
+	public void thatInstancesAreReusedByLaterUnitsOfWork() {
+		Parser first;
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			first = injector.resolve( dependency( Parser.class ) );
+			assertSame( first, injector.resolve( dependency( Parser.class ) ) );
+		}
+		assertTrue( "pooled instances are not closed", !first.closed );
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			assertSame( first, injector.resolve( dependency( Parser.class ) ) );
+		}
+		PoolStats stats = Scoped.poolStats( POOLED );
+		assertEquals( 2, stats.leases - before.leases );
+		assertEquals( 1, stats.created - before.created );
+		assertEquals( 0, stats.inUse );
+		assertEquals( 0, stats.saturated - before.saturated );
+	}
+
+	@Test
+	public void thatSaturatedPoolsWaitForInstancesToBeReturned() throws Exception {
+		CountDownLatch leased = new CountDownLatch( 1 );
+		AtomicReference<Parser> other = new AtomicReference<>();
+		Parser first;
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			first = injector.resolve( dependency( Parser.class ) );
+			Thread waiting = new Thread( () -> {
+				try ( UnitOfWork otherWork = UnitOfWork.begin() ) {
+					other.set( injector.resolve( dependency( Parser.class ) ) );
+				}
+				leased.countDown();
+			} );
+			waiting.start();
+			assertTrue( !leased.await( 50, TimeUnit.MILLISECONDS ) );
+			assertEquals( 1, Scoped.poolStats( POOLED ).inUse );
+		}
+		assertTrue( leased.await( 5, TimeUnit.SECONDS ) );
+		assertSame( first, other.get() );
+		PoolStats stats = Scoped.poolStats( POOLED );
+		assertEquals( 1, stats.saturated - before.saturated );
+		assertTrue( stats.waitNanos > before.waitNanos );
+		assertEquals( 1, stats.created - before.created );
+	}
+
+	@Test
+	public void thatPoolsAreNotSharedBetweenInjectors() {
+		Injector other = Bootstrap.injector( PooledScopeBindsModule.class );
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			assertNotSame( injector.resolve( dependency( Parser.class ) ),
+					other.resolve( dependency( Parser.class ) ) );
+		}
+		assertEquals( 2, Scoped.poolStats( POOLED ).created - before.created );
+	}
+
+	@Test ( expected = OutOfScope.class )
+	public void thatInstancesCannotBeLeasedOutsideOfAUnitOfWork() {
+		injector.resolve( dependency( Parser.class ) );
+	}
+
+	@Test ( expected = UnstableDependency.class )
+	public void thatInstancesCannotBeInjectedIntoApplicationScopedInstances() {
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			injector.resolve( dependency( Service.class ) );
+		}
+	}
+}
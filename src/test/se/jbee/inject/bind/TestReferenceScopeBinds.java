@@ -0,0 +1,125 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.UnstableDependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests that instances in the {@link Scoped#SOFT} and {@link Scoped#WEAK}
+ * scopes are reclaimed by the garbage collector and created again on next
+ * use.
+ * 
+ * The tests run with a constrained heap (see build) so that memory pressure
+ * can be caused quickly.
+ */
+public class TestReferenceScopeBinds {
+
+	private static class ReferenceScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.SOFT ).construct( LookupCache.class );
+			per( Scoped.WEAK ).construct( Index.class );
+			per( Scoped.APPLICATION ).construct( Service.class );
+		}
+	}
+
+	private static class LookupCache {
+
+		static final AtomicInteger CREATED = new AtomicInteger();
+
+		final int version = CREATED.incrementAndGet();
+		final byte[] data = new byte[1024 * 1024];
+
+		LookupCache() {
+			// make visible
+		}
+	}
+
+	private static class Index {
+
+		static final AtomicInteger CREATED = new AtomicInteger();
+
+		final int version = CREATED.incrementAndGet();
+
+		Index() {
+			// make visible
+		}
+	}
+
+	private static class Service {
+
+		@SuppressWarnings ( "unused" )
+		Service( LookupCache cache ) {
+			// not possible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( ReferenceScopeBindsModule.class );
+
+	@Test
+	public void thatSoftInstancesAreSharedWhileReachable() {
+		LookupCache cache = injector.resolve( dependency( LookupCache.class ) );
+		assertSame( cache, injector.resolve( dependency( LookupCache.class ) ) );
+	}
+
+	@Test
+	public void thatSoftInstancesAreReclaimedUnderMemoryPressureAndRebuild() {
+		int version = injector.resolve( dependency( LookupCache.class ) ).version;
+		WeakReference<LookupCache> probe = new WeakReference<>( injector.resolve( dependency( LookupCache.class ) ) );
+		exhaustMemory( probe );
+		assertNull( probe.get() );
+		LookupCache rebuild = injector.resolve( dependency( LookupCache.class ) );
+		assertEquals( version + 1, rebuild.version );
+		assertSame( rebuild, injector.resolve( dependency( LookupCache.class ) ) );
+	}
+
+	@Test
+	public void thatWeakInstancesAreReclaimedWhenUnusedAndRebuild() {
+		int version = injector.resolve( dependency( Index.class ) ).version;
+		WeakReference<Index> probe = new WeakReference<>( injector.resolve( dependency( Index.class ) ) );
+		for ( int i = 0; i < 10 && probe.get() != null; i++ ) {
+			System.gc();
+		}
+		assertNull( probe.get() );
+		Index rebuild = injector.resolve( dependency( Index.class ) );
+		assertEquals( version + 1, rebuild.version );
+		assertSame( rebuild, injector.resolve( dependency( Index.class ) ) );
+	}
+
+	@Test ( expected = UnstableDependency.class )
+	public void thatSoftInstancesCannotBeInjectedIntoApplicationScopedInstances() {
+		injector.resolve( dependency( Service.class ) );
+	}
+
+	/**
+	 * Soft references are guaranteed to be cleared before an
+	 * {@link OutOfMemoryError} is thrown.
+	 */
+	private static void exhaustMemory( WeakReference<?> probe ) {
+		List<byte[]> hog = new ArrayList<>();
+		try {
+			while ( probe.get() != null ) {
+				hog.add( new byte[1024 * 1024] );
+			}
+		} catch ( OutOfMemoryError e ) {
+			// expected at latest
+		} finally {
+			hog.clear();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.UnstableDependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Scope;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests that instances in a {@link Scoped#refreshAhead(long, TimeUnit)}
+ * scope are rebuild in the background while the stale instance continues to
+ * be served.
+ */
+public class TestRefreshAheadScopeBinds {
+
+	static final Queue<Runnable> REFRESHS = new ArrayDeque<>();
+	static final Executor REFRESHER = REFRESHS::add;
+
+	static final Scope EXPIRED = Scoped.refreshAhead( 1, TimeUnit.NANOSECONDS, REFRESHER );
+	static final Scope FRESH = Scoped.refreshAhead( 1, TimeUnit.DAYS, REFRESHER );
+
+	private static class RefreshAheadScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( EXPIRED ).construct( Config.class );
+			per( FRESH ).construct( Rates.class );
+			per( FRESH ).construct( Report.class );
+			per( Scoped.APPLICATION ).construct( Service.class );
+		}
+	}
+
+	private static class Config {
+
+		static final AtomicInteger CREATED = new AtomicInteger();
+
+		final int version = CREATED.incrementAndGet();
+
+		Config() {
+			// make visible
+		}
+	}
+
+	private static class Rates {
+
+		Rates() {
+			// make visible
+		}
+	}
+
+	private static class Report {
+
+		@SuppressWarnings ( "unused" )
+		Report( Config config ) {
+			// not possible
+		}
+	}
+
+	private static class Service {
+
+		@SuppressWarnings ( "unused" )
+		Service( Config config ) {
+			// not possible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( RefreshAheadScopeBindsModule.class );
+
+	@Test
+	public void thatStaleInstancesAreServedWhileBeingRefreshed() {
+		REFRESHS.clear();
+		Config first = injector.resolve( dependency( Config.class ) );
+		assertTrue( REFRESHS.isEmpty() );
+		assertSame( first, injector.resolve( dependency( Config.class ) ) );
+		assertEquals( 1, REFRESHS.size() );
+		assertSame( first, injector.resolve( dependency( Config.class ) ) );
+		assertEquals( "only one refresh at a time", 1, REFRESHS.size() );
+		REFRESHS.poll().run();
+		Config second = injector.resolve( dependency( Config.class ) );
+		assertNotSame( first, second );
+		assertEquals( first.version + 1, second.version );
+	}
+
+	@Test
+	public void thatInstancesWithinTheirTimeToLiveAreNotRefreshed() {
+		REFRESHS.clear();
+		Rates rates = injector.resolve( dependency( Rates.class ) );
+		assertSame( rates, injector.resolve( dependency( Rates.class ) ) );
+		assertTrue( REFRESHS.isEmpty() );
+	}
+
+	@Test
+	public void thatInstancesAreNotSharedBetweenInjectors() {
+		Injector other = Bootstrap.injector( RefreshAheadScopeBindsModule.class );
+		assertNotSame( injector.resolve( dependency( Rates.class ) ),
+				other.resolve( dependency( Rates.class ) ) );
+	}
+
+	@Test ( expected = UnstableDependency.class )
+	public void thatInstancesCannotBeInjectedIntoApplicationScopedInstances() {
+		injector.resolve( dependency( Service.class ) );
+	}
+
+	@Test ( expected = UnstableDependency.class )
+	public void thatInstancesWithShorterTimeToLiveCannotBeInjectedIntoLongerLivingInstances() {
+		injector.resolve( dependency( Report.class ) );
+	}
+}
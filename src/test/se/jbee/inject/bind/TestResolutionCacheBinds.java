@@ -0,0 +1,163 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Name.named;
+import static se.jbee.inject.Type.raw;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Type;
+import se.jbee.inject.UnresolvableDependency.NoResourceForDependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Inject;
+import se.jbee.inject.container.ResolutionStats;
+
+/**
+ * Tests that the {@link Injector} remembers the matching resource for
+ * structurally equal {@link Dependency}s without changing the outcome of the
+ * resolution.
+ */
+public class TestResolutionCacheBinds {
+
+	static final Bar BAR_IN_FOO = new Bar();
+	static final Bar BAR_EVERYWHERE_ELSE = new Bar();
+
+	private static class ResolutionCacheBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			construct( Foo.class );
+			injectingInto( Foo.class ).bind( Bar.class ).to( BAR_IN_FOO );
+			bind( Bar.class ).to( BAR_EVERYWHERE_ELSE );
+			bind( named( "special" ), String.class ).to( "special" );
+			bind( String.class ).to( "default" );
+		}
+	}
+
+	static final List<Integer> INTEGERS = Arrays.asList( 1 );
+
+	@SuppressWarnings ( "rawtypes" )
+	static final Type<List> LIST_OF_INTEGERS = raw( List.class ).parametized( Integer.class );
+	@SuppressWarnings ( "rawtypes" )
+	static final Type<List> LIST_OF_NUMBERS = raw( List.class ).parametized( Number.class );
+	@SuppressWarnings ( "rawtypes" )
+	static final Type<List> LIST_OF_SUBTYPES_OF_NUMBER = LIST_OF_NUMBERS.parametizedAsUpperBounds();
+
+	private static class UpperBoundBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( LIST_OF_INTEGERS ).to( INTEGERS );
+		}
+	}
+
+	private static class Foo {
+
+		final Bar bar;
+
+		@SuppressWarnings ( "unused" )
+		Foo( Bar bar ) {
+			this.bar = bar;
+		}
+	}
+
+	private static class Bar {
+
+		Bar() {
+			// make visible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( ResolutionCacheBindsModule.class );
+
+	@Test
+	public void thatStructurallyEqualDependenciesAreEqual() {
+		Dependency<Bar> a = dependency( Bar.class ).injectingInto( Foo.class );
+		Dependency<Bar> b = dependency( Bar.class ).injectingInto( Foo.class );
+		assertEquals( a, b );
+		assertEquals( a.hashCode(), b.hashCode() );
+		assertTrue( !a.equals( dependency( Bar.class ) ) );
+	}
+
+	@Test
+	public void thatRepeatedResolutionIsAnsweredByTheCache() {
+		Dependency<String> special = dependency( String.class ).named( "special" );
+		assertEquals( "special", injector.resolve( special ) );
+		ResolutionStats before = Inject.resolutionStats( injector );
+		for ( int i = 0; i < 10; i++ ) {
+			assertEquals( "special", injector.resolve( dependency( String.class ).named( "special" ) ) );
+		}
+		ResolutionStats after = Inject.resolutionStats( injector );
+		assertEquals( before.hits + 10, after.hits );
+		assertEquals( before.misses, after.misses );
+	}
+
+	@Test
+	public void thatCachedMatchesRespectTheInjectionHierarchy() {
+		for ( int i = 0; i < 3; i++ ) {
+			assertSame( BAR_EVERYWHERE_ELSE, injector.resolve( dependency( Bar.class ) ) );
+			assertSame( BAR_IN_FOO, injector.resolve( dependency( Foo.class ) ).bar );
+			assertSame( BAR_IN_FOO, injector.resolve( dependency( Bar.class ).injectingInto( Foo.class ) ) );
+		}
+	}
+
+	@Test
+	public void thatCachedMatchesRespectTheName() {
+		for ( int i = 0; i < 3; i++ ) {
+			assertEquals( "default", injector.resolve( dependency( String.class ) ) );
+			assertEquals( "special", injector.resolve( dependency( String.class ).named( "special" ) ) );
+		}
+	}
+
+	@Test
+	public void thatDependenciesDifferingInUpperBoundsAreNotEqual() {
+		Dependency<?> exact = dependency( LIST_OF_NUMBERS );
+		Dependency<?> wildcard = dependency( LIST_OF_SUBTYPES_OF_NUMBER );
+		assertTrue( exact.equalTo( wildcard ) );
+		assertTrue( !exact.equals( wildcard ) );
+		assertTrue( !wildcard.equals( exact ) );
+	}
+
+	@Test
+	public void thatCachedMatchesRespectUpperBoundsWhenWildcardIsResolvedFirst() {
+		Injector injector = Bootstrap.injector( UpperBoundBindsModule.class );
+		for ( int i = 0; i < 2; i++ ) {
+			assertSame( INTEGERS, injector.resolve( dependency( LIST_OF_SUBTYPES_OF_NUMBER ) ) );
+			assertNoResourceFor( injector, LIST_OF_NUMBERS );
+		}
+	}
+
+	@Test
+	public void thatCachedMatchesRespectUpperBoundsWhenExactTypeIsResolvedFirst() {
+		Injector injector = Bootstrap.injector( UpperBoundBindsModule.class );
+		for ( int i = 0; i < 2; i++ ) {
+			assertNoResourceFor( injector, LIST_OF_NUMBERS );
+			assertSame( INTEGERS, injector.resolve( dependency( LIST_OF_SUBTYPES_OF_NUMBER ) ) );
+		}
+	}
+
+	private static void assertNoResourceFor( Injector injector, Type<?> type ) {
+		try {
+			injector.resolve( dependency( type ) );
+			fail( "Expected no resource for " + type );
+		} catch ( NoResourceForDependency e ) {
+			// expected
+		}
+	}
+
+	@Test ( expected = IllegalArgumentException.class )
+	public void thatStatsAreOnlyAvailableForContainerInjectors() {
+		Inject.resolutionStats( injector::resolve );
+	}
+}
@@ -1,11 +1,20 @@
 package se.jbee.inject.bind;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Type.raw;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 
 import org.junit.Test;
 
+import se.jbee.inject.Dependency;
 import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.Type;
 import se.jbee.inject.UnresolvableDependency.UnstableDependency;
 import se.jbee.inject.bootstrap.Bootstrap;
 import se.jbee.inject.container.Scoped;
@@ -24,6 +33,10 @@ public class TestScopedBinds {
 		// just to demo
 	}
 
+	private static class Baz {
+		// just to demo
+	}
+
 	private static class ScopedBindsModule
 			extends BinderModule {
 
@@ -31,6 +44,7 @@ public class TestScopedBinds {
 		protected void declare() {
 			per( Scoped.APPLICATION ).construct( Foo.class );
 			per( Scoped.INJECTION ).construct( Bar.class );
+			per( Scoped.APPLICATION ).construct( Baz.class );
 		}
 	}
 
@@ -40,5 +54,35 @@ public class TestScopedBinds {
 		Foo foo = injector.resolve( dependency( Foo.class ) );
 		fail( "It should not be possible to create a foo but got one: " + foo );
 	}
-	
+
+	@Test
+	public void thatApplicationScopedInstancesAreTheSameForAllTargets() {
+		Injector injector = Bootstrap.injector( ScopedBindsModule.class );
+		Baz baz = injector.resolve( dependency( Baz.class ) );
+		assertSame( baz, injector.resolve( dependency( Baz.class ).injectingInto( Foo.class ) ) );
+		assertSame( baz, injector.resolve( dependency( Baz.class ).injectingInto( Bar.class ) ) );
+	}
+
+	@Test
+	public void thatApplicationScopedInstancesAreServedWithoutAllocation() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if ( !( threads instanceof com.sun.management.ThreadMXBean ) ) {
+			return; // cannot be measured on this VM
+		}
+		com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+		Injector injector = Bootstrap.injector( ScopedBindsModule.class );
+		@SuppressWarnings ( "unchecked" )
+		Type<Injectron<Baz>> type = (Type<Injectron<Baz>>) (Type<?>) raw( Injectron.class ).parametized( Baz.class );
+		Injectron<Baz> injectron = injector.resolve( dependency( type ) );
+		Dependency<Baz> dependency = dependency( Baz.class ).injectingInto( Foo.class );
+		Baz baz = injectron.instanceFor( dependency );
+		long threadId = Thread.currentThread().getId();
+		long before = allocation.getThreadAllocatedBytes( threadId );
+		for ( int i = 0; i < 1000; i++ ) {
+			if ( injectron.instanceFor( dependency ) != baz ) {
+				fail( "not the same instance" );
+			}
+		}
+		assertEquals( 0L, allocation.getThreadAllocatedBytes( threadId ) - before );
+	}
 }
@@ -0,0 +1,302 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Name.named;
+import static se.jbee.inject.Type.raw;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Supplier;
+import se.jbee.inject.bootstrap.Binding;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.BootstrapperBundle;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.bootstrap.Snapshot;
+import se.jbee.inject.config.Globals;
+import se.jbee.inject.config.Presets;
+import se.jbee.inject.container.Provider;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests {@link Snapshot}s of the disambiguated {@link Binding}s used by
+ * {@link Bootstrap#injector(Class, Globals, Path)} on warm restarts.
+ */
+public class TestSnapshotBinds {
+
+	private static class SnapshotBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( String.class ).to( "foobar" );
+			bind( named( "answer" ), Integer.class ).to( 42 );
+			bind( Float.class ).to( 42.0f );
+			bind( Service.class ).to( ServiceImpl.class );
+			construct( ServiceImpl.class );
+			per( Scoped.INJECTION ).construct( Client.class );
+		}
+	}
+
+	private static class SnapshotBindsBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			installAll( BuildinBundle.class );
+			install( SnapshotBindsModule.class );
+		}
+	}
+
+	private static class UndescribableBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( StringBuilder.class ).to( new StringBuilder( "state" ) );
+		}
+	}
+
+	private static class UndescribableBindsBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install( UndescribableBindsModule.class );
+		}
+	}
+
+	private static class StatelessBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( Service.class ).to( new StatelessSupplier() );
+		}
+	}
+
+	private static class StatelessBindsBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install( StatelessBindsModule.class );
+		}
+	}
+
+	private static class StatelessSupplier
+			implements Supplier<Service> {
+
+		StatelessSupplier() {
+			// make visible
+		}
+
+		@Override
+		public Service supply( Dependency<? super Service> dependency, Injector injector ) {
+			return new ServiceImpl();
+		}
+	}
+
+	/**
+	 * Has a name of the same length as {@link StatelessSupplier} so it can be
+	 * swapped in a snapshot.
+	 */
+	private static class StatelessInstance {
+
+		static final AtomicInteger CREATED = new AtomicInteger();
+
+		StatelessInstance() {
+			CREATED.incrementAndGet();
+		}
+	}
+
+	private static class StatelessConstantBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( StatelessInstance.class ).to( new StatelessInstance() );
+		}
+	}
+
+	private static class StatelessConstantBindsBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install( StatelessConstantBindsModule.class );
+		}
+	}
+
+	private interface Service {
+		// marker
+	}
+
+	private static class ServiceImpl
+			implements Service {
+
+		ServiceImpl() {
+			// make visible
+		}
+	}
+
+	private static class Client {
+
+		final Service service;
+		final String name;
+		final Provider<Float> value;
+
+		@SuppressWarnings ( "unused" )
+		Client( Service service, String name, Provider<Float> value ) {
+			this.service = service;
+			this.name = name;
+			this.value = value;
+		}
+	}
+
+	private Path dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory( "snapshot" );
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		for ( Path file : Files.newDirectoryStream( dir ) ) {
+			Files.delete( file );
+		}
+		Files.delete( dir );
+	}
+
+	@Test
+	public void thatSnapshotIsWrittenAndRestoredToEqualBindings() {
+		Path file = dir.resolve( "bindings.snapshot" );
+		byte[] fingerprint = Snapshot.fingerprint( SnapshotBindsBundle.class, Globals.STANDARD );
+		Binding<?>[] computed = Bootstrap.bindings( SnapshotBindsBundle.class,
+				Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), Globals.STANDARD );
+		assertTrue( Snapshot.save( file, fingerprint, computed ) );
+		Binding<?>[] restored = Snapshot.load( file, fingerprint, getClass().getClassLoader() );
+		assertNotNull( restored );
+		assertEquals( computed.length, restored.length );
+		for ( int i = 0; i < computed.length; i++ ) {
+			assertTrue( computed[i].resource.equalTo( restored[i].resource ) );
+			assertSame( computed[i].scope, restored[i].scope );
+			assertSame( computed[i].type, restored[i].type );
+			assertSame( computed[i].source.ident, restored[i].source.ident );
+			assertEquals( computed[i].supplier.getClass(), restored[i].supplier.getClass() );
+		}
+	}
+
+	@Test
+	public void thatInjectorFromSnapshotResolvesLikeComputedOne() {
+		Path file = dir.resolve( "bindings.snapshot" );
+		Injector first = Bootstrap.injector( SnapshotBindsBundle.class, Globals.STANDARD, file );
+		assertTrue( Files.exists( file ) );
+		Injector restored = Bootstrap.injector( SnapshotBindsBundle.class, Globals.STANDARD, file );
+		for ( Injector injector : new Injector[] { first, restored } ) {
+			Client client = injector.resolve( dependency( Client.class ) );
+			assertSame( injector.resolve( dependency( ServiceImpl.class ) ), client.service );
+			assertEquals( "foobar", client.name );
+			assertEquals( 42.0f, client.value.provide(), 0.01f );
+			assertEquals( 42, injector.resolve( dependency( Integer.class ).named( "answer" ) ).intValue() );
+			List<?> list = injector.resolve( dependency( raw( List.class ).parametized( String.class ) ) );
+			assertEquals( "foobar", list.get( 0 ) );
+		}
+	}
+
+	@Test
+	public void thatSnapshotOfDifferentGlobalsIsNotLoaded() {
+		Path file = dir.resolve( "bindings.snapshot" );
+		Bootstrap.injector( SnapshotBindsBundle.class, Globals.STANDARD, file );
+		Globals other = Globals.STANDARD.presets( Presets.EMPTY.preset( String.class, "other" ) );
+		byte[] fingerprint = Snapshot.fingerprint( SnapshotBindsBundle.class, other );
+		assertNull( Snapshot.load( file, fingerprint, getClass().getClassLoader() ) );
+		assertNotNull( Snapshot.load( file, Snapshot.fingerprint( SnapshotBindsBundle.class, Globals.STANDARD ),
+				getClass().getClassLoader() ) );
+	}
+
+	@Test
+	public void thatUndescribableBindingsAreNotWrittenButStillBootstrapped() {
+		Path file = dir.resolve( "bindings.snapshot" );
+		Injector injector = Bootstrap.injector( UndescribableBindsBundle.class, Globals.STANDARD, file );
+		assertFalse( Files.exists( file ) );
+		assertEquals( "state", injector.resolve( dependency( StringBuilder.class ) ).toString() );
+	}
+
+	@Test
+	public void thatStatelessValuesOtherThanSuppliersScopesAndInvokersAreNotWritten() {
+		Path file = dir.resolve( "bindings.snapshot" );
+		Bootstrap.injector( StatelessConstantBindsBundle.class, Globals.STANDARD, file );
+		assertFalse( Files.exists( file ) );
+	}
+
+	@Test
+	public void thatStatelessValuesOtherThanSuppliersScopesAndInvokersAreNotRead() throws IOException {
+		byte[] fingerprint = Snapshot.fingerprint( StatelessBindsBundle.class, Globals.STANDARD );
+		Binding<?>[] computed = Bootstrap.bindings( StatelessBindsBundle.class,
+				Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), Globals.STANDARD );
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Snapshot.write( computed, fingerprint, out );
+		byte[] snapshot = out.toByteArray();
+		byte[] supplier = StatelessSupplier.class.getName().getBytes( StandardCharsets.UTF_8 );
+		byte[] instance = StatelessInstance.class.getName().getBytes( StandardCharsets.UTF_8 );
+		assertNotNull( Snapshot.read( new ByteArrayInputStream( snapshot ), fingerprint, getClass().getClassLoader() ) );
+		int at = indexOf( snapshot, supplier );
+		assertTrue( at >= 0 );
+		System.arraycopy( instance, 0, snapshot, at, instance.length );
+		int created = StatelessInstance.CREATED.get();
+		try {
+			Snapshot.read( new ByteArrayInputStream( snapshot ), fingerprint, getClass().getClassLoader() );
+			fail( "Expected class that is not a stateless value type to be refused" );
+		} catch ( InvalidClassException e ) {
+			assertEquals( created, StatelessInstance.CREATED.get() );
+		}
+	}
+
+	@Test
+	public void thatSavingLeavesNoTemporaryFiles() throws IOException {
+		Path file = dir.resolve( "bindings.snapshot" );
+		Bootstrap.injector( SnapshotBindsBundle.class, Globals.STANDARD, file );
+		Bootstrap.injector( StatelessBindsBundle.class, Globals.STANDARD, file );
+		try ( Stream<Path> files = Files.list( dir ) ) {
+			assertEquals( 1L, files.count() );
+		}
+	}
+
+	private static int indexOf( byte[] data, byte[] part ) {
+		for ( int i = 0; i <= data.length - part.length; i++ ) {
+			int j = 0;
+			while ( j < part.length && data[i + j] == part[j] ) {
+				j++;
+			}
+			if ( j == part.length ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
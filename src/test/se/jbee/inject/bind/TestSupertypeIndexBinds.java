@@ -0,0 +1,78 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Type.raw;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.Type;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+/**
+ * Tests that wild-card arrays are resolved to all bound sub-types of the
+ * element type, including super-interfaces and bound array types.
+ */
+public class TestSupertypeIndexBinds {
+
+	private static class SupertypeIndexBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( Integer.class ).to( 1 );
+			bind( Long.class ).to( 2L );
+			bind( String.class ).to( "three" );
+			bind( String[].class ).to( new String[] { "four" } );
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( SupertypeIndexBindsModule.class );
+
+	@Test
+	public void thatWildcardArraysContainAllBoundSubclasses() {
+		assertElements( raw( Number.class ), 1, 2L );
+	}
+
+	@Test
+	public void thatWildcardArraysContainAllBoundImplementations() {
+		assertElements( raw( Comparable.class ), 1, 2L, "three" );
+		assertEquals( 4, resolveAll( raw( Serializable.class ) ).length );
+	}
+
+	@Test
+	public void thatWildcardArraysContainBoundArrays() {
+		Object[] arrays = resolveAll( raw( Cloneable.class ) );
+		assertEquals( 1, arrays.length );
+		assertEquals( "four", ( (String[]) arrays[0] )[0] );
+	}
+
+	@Test
+	public void thatWildcardArraysOfObjectContainAllBoundTypes() {
+		assertEquals( 4, resolveAll( Type.OBJECT ).length );
+	}
+
+	@Test
+	public void thatWildcardInjectronArraysContainAllBoundSubclasses() {
+		@SuppressWarnings ( "unchecked" )
+		Type<Injectron<?>> injectronType = (Type<Injectron<?>>) (Type<?>) raw( Injectron.class ).parametized(
+				raw( Number.class ).asUpperBound() );
+		Injectron<?>[] injectrons = injector.resolve( dependency( injectronType.addArrayDimension() ) );
+		assertEquals( 2, injectrons.length );
+	}
+
+	private void assertElements( Type<?> supertype, Object... expected ) {
+		assertEquals( new HashSet<>( Arrays.asList( expected ) ),
+				new HashSet<>( Arrays.asList( resolveAll( supertype ) ) ) );
+	}
+
+	private Object[] resolveAll( Type<?> supertype ) {
+		return (Object[]) injector.resolve( dependency( supertype.asUpperBound().addArrayDimension() ) );
+	}
+}
@@ -0,0 +1,169 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.OutOfScope;
+import se.jbee.inject.UnresolvableDependency.UnstableDependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Scoped;
+import se.jbee.inject.container.TaskTree;
+
+/**
+ * Tests that instances in the {@link Scoped#TASK_TREE} scope are shared by
+ * all subtasks of a {@link TaskTree}.
+ */
+public class TestTaskTreeScopeBinds {
+
+	private static class TaskTreeScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.TASK_TREE ).construct( RequestContext.class );
+			per( Scoped.TASK_TREE ).construct( SlowContext.class );
+			per( Scoped.APPLICATION ).construct( Service.class );
+		}
+	}
+
+	private static class RequestContext implements AutoCloseable {
+
+		static final AtomicInteger CREATED = new AtomicInteger();
+
+		boolean closed;
+
+		RequestContext() {
+			CREATED.incrementAndGet();
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	private static class SlowContext implements AutoCloseable {
+
+		static final CountDownLatch ENTERED = new CountDownLatch( 1 );
+		static final CountDownLatch RELEASED = new CountDownLatch( 1 );
+		static volatile SlowContext created;
+
+		volatile boolean closed;
+
+		SlowContext() throws InterruptedException {
+			created = this;
+			ENTERED.countDown();
+			RELEASED.await();
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	private static class Service {
+
+		@SuppressWarnings ( "unused" )
+		Service( RequestContext context ) {
+			// not possible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( TaskTreeScopeBindsModule.class );
+
+	@Test
+	public void thatInstancesAreSharedByAllSubtasks() throws InterruptedException, ExecutionException {
+		int created = RequestContext.CREATED.get();
+		RequestContext context;
+		try ( TaskTree tree = TaskTree.root() ) {
+			List<ForkJoinTask<RequestContext>> subtasks = new ArrayList<>();
+			for ( int i = 0; i < 16; i++ ) {
+				subtasks.add( tree.fork( () -> tree.fork(
+						() -> injector.resolve( dependency( RequestContext.class ) ) ).join() ) );
+			}
+			context = injector.resolve( dependency( RequestContext.class ) );
+			for ( ForkJoinTask<RequestContext> subtask : subtasks ) {
+				assertSame( context, subtask.get() );
+			}
+		}
+		assertTrue( context.closed );
+		assertEquals( created + 1, RequestContext.CREATED.get() );
+		assertNull( TaskTree.current() );
+	}
+
+	@Test
+	public void thatInstancesAreNotSharedBetweenTrees() {
+		RequestContext first;
+		try ( TaskTree tree = TaskTree.root() ) {
+			first = injector.resolve( dependency( RequestContext.class ) );
+		}
+		try ( TaskTree tree = TaskTree.root() ) {
+			assertNotSame( first, injector.resolve( dependency( RequestContext.class ) ) );
+		}
+	}
+
+	@Test
+	public void thatBoundSubtasksShareInstances() throws Exception {
+		try ( TaskTree tree = TaskTree.root() ) {
+			RequestContext context = injector.resolve( dependency( RequestContext.class ) );
+			assertSame( context, ForkJoinPool.commonPool().submit(
+					tree.bind( () -> injector.resolve( dependency( RequestContext.class ) ) ) ).get() );
+		}
+	}
+
+	@Test ( expected = OutOfScope.class )
+	public void thatInstancesCannotBeResolvedAfterTheTreeIsClosed() throws Throwable {
+		TaskTree tree = TaskTree.root();
+		tree.close();
+		try {
+			tree.fork( () -> injector.resolve( dependency( RequestContext.class ) ) ).get();
+		} catch ( ExecutionException e ) {
+			throw e.getCause();
+		}
+	}
+
+	@Test ( expected = OutOfScope.class )
+	public void thatInstancesCannotBeResolvedOutsideOfATree() {
+		injector.resolve( dependency( RequestContext.class ) );
+	}
+
+	@Test ( expected = UnstableDependency.class )
+	public void thatInstancesCannotBeInjectedIntoApplicationScopedInstances() {
+		try ( TaskTree tree = TaskTree.root() ) {
+			injector.resolve( dependency( Service.class ) );
+		}
+	}
+
+	@Test
+	public void thatInstancesCreatedWhileTheTreeIsClosedAreClosedByTheirCreator() throws Exception {
+		TaskTree tree = TaskTree.root();
+		ForkJoinTask<SlowContext> subtask = tree.fork( () -> injector.resolve( dependency( SlowContext.class ) ) );
+		SlowContext.ENTERED.await();
+		tree.close();
+		SlowContext.RELEASED.countDown();
+		try {
+			subtask.get();
+			fail( "Expected instance of closed tree not to be served" );
+		} catch ( ExecutionException e ) {
+			assertTrue( e.getCause() instanceof OutOfScope );
+		}
+		assertTrue( SlowContext.created.closed );
+	}
+}
@@ -0,0 +1,137 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests the life-cycle of {@link Scoped#THREAD} scoped instances.
+ */
+public class TestThreadScopeBinds {
+
+	private static class ThreadScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.THREAD ).construct( Session.class );
+		}
+	}
+
+	private static class Session {
+
+		Session() {
+			// make visible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( ThreadScopeBindsModule.class );
+
+	@Test
+	public void thatInstancesAreSharedWithinAThread() throws InterruptedException {
+		Session session = injector.resolve( dependency( Session.class ) );
+		assertSame( session, injector.resolve( dependency( Session.class ) ) );
+		assertNotSame( session, inOtherThread( () -> injector.resolve( dependency( Session.class ) ) ) );
+	}
+
+	@Test
+	public void thatInstancesAreNotSharedBetweenInjectors() {
+		Injector other = Bootstrap.injector( ThreadScopeBindsModule.class );
+		Session session = injector.resolve( dependency( Session.class ) );
+		assertNotSame( session, other.resolve( dependency( Session.class ) ) );
+		assertSame( session, injector.resolve( dependency( Session.class ) ) );
+	}
+
+	@Test
+	public void thatInstancesOfTheCurrentThreadCanBeCleared() {
+		Session session = injector.resolve( dependency( Session.class ) );
+		Scoped.clearThreadScope( Thread.currentThread() );
+		Session renewed = injector.resolve( dependency( Session.class ) );
+		assertNotSame( session, renewed );
+		assertSame( renewed, injector.resolve( dependency( Session.class ) ) );
+	}
+
+	@Test
+	public void thatInstancesOfAllThreadsCanBeCleared() throws InterruptedException {
+		CountDownLatch resolved = new CountDownLatch( 1 );
+		CountDownLatch cleared = new CountDownLatch( 1 );
+		AtomicReference<Session> before = new AtomicReference<>();
+		AtomicReference<Session> after = new AtomicReference<>();
+		Thread worker = new Thread( () -> {
+			before.set( injector.resolve( dependency( Session.class ) ) );
+			resolved.countDown();
+			try {
+				cleared.await();
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+			after.set( injector.resolve( dependency( Session.class ) ) );
+		} );
+		worker.start();
+		resolved.await();
+		Scoped.clearThreadScope();
+		cleared.countDown();
+		worker.join();
+		assertNotSame( before.get(), after.get() );
+	}
+
+	@Test
+	public void thatRepositoriesOfDeadThreadsAreEvicted() throws InterruptedException {
+		injector.resolve( dependency( Session.class ) );
+		int live = Scoped.liveThreadRepositories();
+		CountDownLatch resolved = new CountDownLatch( 1 );
+		CountDownLatch done = new CountDownLatch( 1 );
+		Thread worker = new Thread( () -> {
+			injector.resolve( dependency( Session.class ) );
+			resolved.countDown();
+			try {
+				done.await();
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+		} );
+		worker.start();
+		resolved.await();
+		assertEquals( live + 1, Scoped.liveThreadRepositories() );
+		done.countDown();
+		worker.join();
+		assertEquals( live, Scoped.liveThreadRepositories() );
+	}
+
+	private static Session inOtherThread( Supplier<Session> resolve ) throws InterruptedException {
+		AtomicReference<Session> res = new AtomicReference<>();
+		Thread thread = new Thread( () -> res.set( resolve.get() ) );
+		thread.start();
+		thread.join();
+		return res.get();
+	}
+
+	@Test
+	public void thatRepositoriesOfDiscardedInjectorsAreNotRetainedByThreads() throws InterruptedException {
+		AtomicReference<WeakReference<Session>> probe = new AtomicReference<>();
+		Thread worker = new Thread( () -> {
+			probe.set( new WeakReference<>( Bootstrap.injector( ThreadScopeBindsModule.class ).resolve( dependency( Session.class ) ) ) );
+			for ( int i = 0; i < 10 && probe.get().get() != null; i++ ) {
+				System.gc();
+				// adding the repository of another injector drops those of collected ones
+				Bootstrap.injector( ThreadScopeBindsModule.class ).resolve( dependency( Session.class ) );
+			}
+		} );
+		worker.start();
+		worker.join();
+		assertNull( probe.get().get() );
+	}
+}
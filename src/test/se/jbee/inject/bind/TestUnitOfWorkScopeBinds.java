@@ -0,0 +1,135 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.OutOfScope;
+import se.jbee.inject.UnresolvableDependency.UnstableDependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Scoped;
+import se.jbee.inject.container.UnitOfWork;
+
+/**
+ * Tests that instances in the {@link Scoped#UNIT_OF_WORK} scope exist from
+ * {@link UnitOfWork#begin()} to {@link UnitOfWork#end()}.
+ */
+public class TestUnitOfWorkScopeBinds {
+
+	private static class UnitOfWorkScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.UNIT_OF_WORK ).construct( Connection.class );
+			per( Scoped.UNIT_OF_WORK ).construct( Handler.class );
+			per( Scoped.APPLICATION ).construct( Service.class );
+		}
+	}
+
+	private static class Connection implements AutoCloseable {
+
+		boolean closed;
+
+		Connection() {
+			// make visible
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	private static class Handler {
+
+		final Connection connection;
+
+		@SuppressWarnings ( "unused" )
+		Handler( Connection connection ) {
+			this.connection = connection;
+		}
+	}
+
+	private static class Service {
+
+		@SuppressWarnings ( "unused" )
+		Service( Connection connection ) {
+			// not possible
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( UnitOfWorkScopeBindsModule.class );
+
+	@Test
+	public void thatInstancesAreSharedWithinAUnitOfWork() {
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			Connection connection = injector.resolve( dependency( Connection.class ) );
+			assertSame( connection, injector.resolve( dependency( Handler.class ) ).connection );
+			assertSame( work, UnitOfWork.current() );
+		}
+		assertNull( UnitOfWork.current() );
+	}
+
+	@Test
+	public void thatInstancesAreNotSharedBetweenUnitsOfWork() {
+		Connection first;
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			first = injector.resolve( dependency( Connection.class ) );
+		}
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			assertNotSame( first, injector.resolve( dependency( Connection.class ) ) );
+		}
+	}
+
+	@Test
+	public void thatCloseableInstancesAreClosedAtTheEnd() {
+		UnitOfWork work = UnitOfWork.begin();
+		Connection connection = injector.resolve( dependency( Connection.class ) );
+		assertTrue( !connection.closed );
+		work.end();
+		assertTrue( connection.closed );
+		work.end(); // no effect
+	}
+
+	@Test
+	public void thatUnitsOfWorkCanBeNested() {
+		try ( UnitOfWork outer = UnitOfWork.begin() ) {
+			Connection connection = injector.resolve( dependency( Connection.class ) );
+			try ( UnitOfWork inner = UnitOfWork.begin() ) {
+				assertNotSame( connection, injector.resolve( dependency( Connection.class ) ) );
+			}
+			assertSame( outer, UnitOfWork.current() );
+			assertSame( connection, injector.resolve( dependency( Connection.class ) ) );
+		}
+	}
+
+	@Test ( expected = OutOfScope.class )
+	public void thatInstancesCannotBeResolvedOutsideOfAUnitOfWork() {
+		injector.resolve( dependency( Connection.class ) );
+	}
+
+	@Test ( expected = UnstableDependency.class )
+	public void thatInstancesCannotBeInjectedIntoApplicationScopedInstances() {
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			injector.resolve( dependency( Service.class ) );
+		}
+	}
+
+	@Test
+	public void thatInstancesAreNotSharedBetweenInjectors() {
+		Injector other = Bootstrap.injector( UnitOfWorkScopeBindsModule.class );
+		try ( UnitOfWork work = UnitOfWork.begin() ) {
+			Connection connection = injector.resolve( dependency( Connection.class ) );
+			assertNotSame( connection, other.resolve( dependency( Connection.class ) ) );
+			assertSame( connection, injector.resolve( dependency( Connection.class ) ) );
+			assertEquals( false, connection.closed );
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.SingletonTimings;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Tests {@link Bootstrap#warmUp(Injector, java.util.concurrent.Executor)}
+ * creating singletons in the background while the {@link Injector} is used.
+ */
+public class TestWarmUpBinds {
+
+	static final List<Class<?>> CREATED = Collections.synchronizedList( new ArrayList<>() );
+
+	private static class WarmUpBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.APPLICATION ).construct( Top.class );
+			per( Scoped.APPLICATION ).construct( Middle.class );
+			per( Scoped.APPLICATION ).construct( Bottom.class );
+		}
+	}
+
+	private static class Bottom {
+
+		Bottom() {
+			CREATED.add( Bottom.class );
+		}
+	}
+
+	private static class Middle {
+
+		@SuppressWarnings ( "unused" )
+		Middle( Bottom bottom ) {
+			CREATED.add( Middle.class );
+		}
+	}
+
+	private static class Top {
+
+		@SuppressWarnings ( "unused" )
+		Top( Middle middle ) {
+			CREATED.add( Top.class );
+		}
+	}
+
+	private static class SlowBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.APPLICATION ).construct( Slow.class );
+		}
+	}
+
+	private static class Slow {
+
+		static final AtomicInteger CREATED = new AtomicInteger();
+		static final CountDownLatch STARTED = new CountDownLatch( 1 );
+		static final CountDownLatch RELEASE = new CountDownLatch( 1 );
+
+		Slow() throws InterruptedException {
+			CREATED.incrementAndGet();
+			STARTED.countDown();
+			RELEASE.await( 5, TimeUnit.SECONDS );
+		}
+	}
+
+	@Test
+	public void thatMostDependedUponSingletonsAreCreatedFirst() throws Exception {
+		Injector injector = Bootstrap.injector( WarmUpBindsModule.class );
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			SingletonTimings timings = Bootstrap.warmUp( injector, executor ).get( 5, TimeUnit.SECONDS );
+			assertEquals( 3, CREATED.size() );
+			assertEquals( Bottom.class, CREATED.get( 0 ) );
+			assertEquals( Middle.class, CREATED.get( 1 ) );
+			assertEquals( Top.class, CREATED.get( 2 ) );
+			assertTrue( timings.injectrons.length >= 3 );
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void thatRequestsWaitForSingletonsInConstruction() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool( 2 );
+		try {
+			Injector injector = Bootstrap.injector( SlowBindsModule.class, executor );
+			assertTrue( Slow.STARTED.await( 5, TimeUnit.SECONDS ) );
+			Future<Slow> request = executor.submit( () -> injector.resolve( dependency( Slow.class ) ) );
+			Slow.RELEASE.countDown();
+			assertSame( request.get( 5, TimeUnit.SECONDS ), injector.resolve( dependency( Slow.class ) ) );
+			assertEquals( 1, Slow.CREATED.get() );
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package se.jbee.inject.container;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import se.jbee.inject.Injectron;
+
+/**
+ * Compares the lookup of {@link Injectron}s by raw type in a
+ * {@link IdentityHashMap} with the numbered {@link InjectronTable}.
+ * 
+ * This is not a test. It is run manually with the test classes on the
+ * class-path. Arguments are the numbers of raw types (default: 100 10000
+ * 100000). Each type is a class generated for this purpose; half of the
+ * lookups ask for a type that is not bound.
+ */
+public final class InjectronTableBenchmark {
+
+	private static final int LOOKUPS = 10_000_000;
+	private static final int ROUNDS = 5;
+
+	public static void main( String[] args ) throws Throwable {
+		int[] sizes = args.length == 0
+			? new int[] { 100, 10_000, 100_000 }
+			: new int[args.length];
+		for ( int i = 0; i < args.length; i++ ) {
+			sizes[i] = Integer.parseInt( args[i] );
+		}
+		int max = 0;
+		for ( int size : sizes ) {
+			max = Math.max( max, size );
+		}
+		Class<?>[] types = generateTypes( 2 * max );
+		for ( int size : sizes ) {
+			run( types, size );
+		}
+	}
+
+	private static void run( Class<?>[] allTypes, int size ) {
+		Map<Class<?>, Injectron<?>[]> map = new IdentityHashMap<>( size );
+		for ( int i = 0; i < size; i++ ) {
+			map.put( allTypes[i], new Injectron<?>[0] );
+		}
+		InjectronTable table = new InjectronTable( map, true );
+		Random rnd = new Random( 42 );
+		Class<?>[] lookups = new Class<?>[1 << 16];
+		for ( int i = 0; i < lookups.length; i++ ) {
+			lookups[i] = allTypes[rnd.nextInt( 2 * size )];
+		}
+		for ( int round = 1; round <= ROUNDS; round++ ) {
+			long mapTime = System.nanoTime();
+			int mapHits = lookupMap( map, lookups );
+			mapTime = System.nanoTime() - mapTime;
+			long tableTime = System.nanoTime();
+			int tableHits = lookupTable( table, lookups );
+			tableTime = System.nanoTime() - tableTime;
+			if ( mapHits != tableHits ) {
+				throw new AssertionError( mapHits + " != " + tableHits );
+			}
+			System.out.printf( "%,8d types, round %d: map %6.2f ns/lookup, table %6.2f ns/lookup%n", size,
+					round, (double) mapTime / LOOKUPS, (double) tableTime / LOOKUPS );
+		}
+	}
+
+	private static int lookupMap( Map<Class<?>, Injectron<?>[]> map, Class<?>[] lookups ) {
+		int hits = 0;
+		for ( int i = 0; i < LOOKUPS; i++ ) {
+			if ( map.get( lookups[i & ( lookups.length - 1 )] ) != null ) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	private static int lookupTable( InjectronTable table, Class<?>[] lookups ) {
+		int hits = 0;
+		for ( int i = 0; i < LOOKUPS; i++ ) {
+			if ( table.get( lookups[i & ( lookups.length - 1 )] ) != null ) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Each {@link LambdaMetafactory} linkage spins a new class.
+	 */
+	private static Class<?>[] generateTypes( int count ) throws Throwable {
+		Lookup lookup = MethodHandles.lookup();
+		MethodHandle impl = lookup.findStatic( InjectronTableBenchmark.class, "noop", methodType( void.class ) );
+		Class<?>[] types = new Class<?>[count];
+		for ( int i = 0; i < count; i++ ) {
+			CallSite site = LambdaMetafactory.metafactory( lookup, "run", methodType( Runnable.class ),
+					methodType( void.class ), impl, methodType( void.class ) );
+			types[i] = ( (Runnable) site.getTarget().invoke() ).getClass();
+		}
+		return types;
+	}
+
+	static void noop() {
+		// just a target
+	}
+}
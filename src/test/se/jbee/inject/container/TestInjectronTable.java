@@ -0,0 +1,53 @@
+package se.jbee.inject.container;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injectron;
+
+public class TestInjectronTable {
+
+	private static final Injectron<?>[] STRINGS = new Injectron<?>[0];
+	private static final Injectron<?>[] INTEGERS = new Injectron<?>[0];
+
+	@Test
+	public void thatNumberedTableFindsBoundTypes() {
+		assertFindsBoundTypes( new InjectronTable( map(), true ) );
+	}
+
+	@Test
+	public void thatMappedTableFindsBoundTypes() {
+		assertFindsBoundTypes( new InjectronTable( map(), false ) );
+	}
+
+	@Test
+	public void thatTablesOfSameTypesAreIndependent() {
+		Map<Class<?>, Injectron<?>[]> other = new IdentityHashMap<>();
+		other.put( Long.class, STRINGS );
+		other.put( String.class, INTEGERS );
+		InjectronTable table1 = new InjectronTable( map(), true );
+		InjectronTable table2 = new InjectronTable( other, true );
+		assertSame( STRINGS, table1.get( String.class ) );
+		assertSame( INTEGERS, table2.get( String.class ) );
+		assertNull( table1.get( Long.class ) );
+	}
+
+	private static void assertFindsBoundTypes( InjectronTable table ) {
+		assertSame( STRINGS, table.get( String.class ) );
+		assertSame( INTEGERS, table.get( Integer.class ) );
+		assertNull( table.get( Long.class ) );
+		assertSame( STRINGS, table.get( String.class ) );
+	}
+
+	private static Map<Class<?>, Injectron<?>[]> map() {
+		Map<Class<?>, Injectron<?>[]> map = new IdentityHashMap<>();
+		map.put( String.class, STRINGS );
+		map.put( Integer.class, INTEGERS );
+		return map;
+	}
+}
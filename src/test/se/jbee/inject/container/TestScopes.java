@@ -1,15 +1,31 @@
 package se.jbee.inject.container;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static se.jbee.inject.Dependency.dependency;
 import static se.jbee.inject.Resource.resource;
 import static se.jbee.inject.Source.source;
+import static se.jbee.inject.Type.raw;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import se.jbee.inject.Dependency;
 import se.jbee.inject.Expiry;
 import se.jbee.inject.InjectronInfo;
 import se.jbee.inject.Source;
+import se.jbee.inject.container.Scoped.DependencyProperty;
 
 public class TestScopes {
 
@@ -53,4 +69,113 @@ public class TestScopes {
 		assertSame( r.serve( dependency( B.class ), db, ib ), b );
 		assertSame( r.serve( dependency( B.class ), db, null ), b ); // the null Provider shouldn't be called now
 	}
+
+	@Test
+	public void thatApplicationScopeCreatesIndependentInstancesConcurrently() throws Exception {
+		Repository r = Scoped.APPLICATION.init();
+		Source source = source(TestScopes.class);
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source, Expiry.NEVER, 0, 2 );
+		InjectronInfo<B> db = new InjectronInfo<>( resource( B.class ), source, Expiry.NEVER, 1, 2 );
+		CountDownLatch bCreated = new CountDownLatch( 1 );
+		ExecutorService pool = Executors.newFixedThreadPool( 2 );
+		try {
+			Future<A> a = pool.submit( () -> r.serve( dependency( A.class ), da, () -> {
+				try { // A is created until B is created
+					assertTrue( bCreated.await( 5, TimeUnit.SECONDS ) );
+				} catch ( InterruptedException e ) {
+					throw new AssertionError( e );
+				}
+				return new A();
+			} ) );
+			B b = pool.submit( () -> r.serve( dependency( B.class ), db, B::new ) ).get( 5, TimeUnit.SECONDS );
+			bCreated.countDown();
+			assertSame( a.get( 5, TimeUnit.SECONDS ), r.serve( dependency( A.class ), da, null ) );
+			assertSame( b, r.serve( dependency( B.class ), db, null ) );
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void thatApplicationScopeCreatesInstancesOnce() throws Exception {
+		Repository r = Scoped.APPLICATION.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+		AtomicInteger created = new AtomicInteger();
+		Provider<A> slow = () -> {
+			created.incrementAndGet();
+			try {
+				Thread.sleep( 20 );
+			} catch ( InterruptedException e ) {
+				throw new AssertionError( e );
+			}
+			return new A();
+		};
+		ExecutorService pool = Executors.newFixedThreadPool( 4 );
+		try {
+			List<Future<A>> as = new ArrayList<>();
+			for ( int i = 0; i < 8; i++ ) {
+				as.add( pool.submit( () -> r.serve( dependency( A.class ), da, slow ) ) );
+			}
+			A a = as.get( 0 ).get( 5, TimeUnit.SECONDS );
+			for ( Future<A> f : as ) {
+				assertSame( a, f.get( 5, TimeUnit.SECONDS ) );
+			}
+			assertEquals( 1, created.get() );
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void thatApplicationScopeRetriesFailedCreation() {
+		Repository r = Scoped.APPLICATION.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+		try {
+			r.serve( dependency( A.class ), da, () -> { throw new IllegalStateException(); } );
+			fail( "Expected an exception" );
+		} catch ( IllegalStateException e ) {
+			// expected
+		}
+		A a = new A();
+		assertSame( a, r.serve( dependency( A.class ), da, new ConstantProvider<>( a ) ) );
+	}
+
+	@Test
+	public void thatDependencyPropertyKeysAreStructural() {
+		Dependency<A> a1 = dependency( A.class ).named( "x" ).injectingInto( B.class );
+		Dependency<A> a2 = dependency( A.class ).named( "x" ).injectingInto( B.class );
+		for ( DependencyProperty p : new DependencyProperty[] { Scoped.DEPENDENCY_TYPE_KEY,
+				Scoped.DEPENDENCY_INSTANCE_KEY, Scoped.TARGET_INSTANCE_KEY, Scoped.TARGETED_DEPENDENCY_TYPE_KEY } ) {
+			assertEquals( p.deriveFrom( a1 ), p.deriveFrom( a2 ) );
+			assertEquals( p.deriveFrom( a1 ).hashCode(), p.deriveFrom( a2 ).hashCode() );
+		}
+		assertFalse( Scoped.DEPENDENCY_INSTANCE_KEY.deriveFrom( a1 ).equals(
+				Scoped.DEPENDENCY_INSTANCE_KEY.deriveFrom( dependency( A.class ) ) ) );
+		assertFalse( Scoped.TARGET_INSTANCE_KEY.deriveFrom( a1 ).equals(
+				Scoped.TARGET_INSTANCE_KEY.deriveFrom( a1.injectingInto( A.class ) ) ) );
+		assertFalse( Scoped.DEPENDENCY_TYPE_KEY.deriveFrom( dependency( raw( A.class ) ) ).equals(
+				Scoped.DEPENDENCY_TYPE_KEY.deriveFrom( dependency( raw( A.class ).asUpperBound() ) ) ) );
+	}
+
+	@Test
+	public void thatDependencyPropertiesHaveDistinctNames() {
+		DependencyProperty[] properties = { Scoped.DEPENDENCY_TYPE_KEY, Scoped.DEPENDENCY_INSTANCE_KEY,
+				Scoped.TARGET_INSTANCE_KEY, Scoped.TARGETED_DEPENDENCY_TYPE_KEY };
+		for ( int i = 0; i < properties.length; i++ ) {
+			for ( int j = i + 1; j < properties.length; j++ ) {
+				assertFalse( properties[i].toString().equals( properties[j].toString() ) );
+			}
+		}
+		assertEquals( "dependency-instance", Scoped.DEPENDENCY_INSTANCE_KEY.toString() );
+	}
+
+	@Test
+	public void thatScopesCreatedOnDemandCarryTheirExpiry() {
+		int predefined = Inject.EXPIRATION.size();
+		for ( Scope scope : new Scope[] { Scoped.pooled( 2 ), Scoped.refreshAhead( 1, TimeUnit.SECONDS ) } ) {
+			assertTrue( scope instanceof ExpiringScope );
+			assertTrue( ( (ExpiringScope) scope ).expiry().moreFrequent( Expiry.NEVER ) );
+		}
+		assertEquals( predefined, Inject.EXPIRATION.size() );
+	}
 }